@@ -35,6 +35,8 @@ import org.jboss.maven.plugins.qstools.checkers.QSChecker;
 import org.jboss.maven.plugins.qstools.checkers.Violation;
 import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
 import org.jboss.maven.plugins.qstools.fixers.QSFixer;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndexProvider;
 import org.jboss.maven.plugins.qstools.xml.PositionalXMLReader;
 import org.w3c.dom.Document;
 
@@ -54,6 +56,9 @@ public abstract class AbstractProjectWalker implements QSChecker, QSFixer {
     @Requirement
     private ConfigurationProvider configurationProvider;
 
+    @Requirement
+    private PomModelIndexProvider pomModelIndexProvider;
+
     private XPath xPath = XPathFactory.newInstance().newXPath();
 
     private Log log;
@@ -179,6 +184,17 @@ public abstract class AbstractProjectWalker implements QSChecker, QSFixer {
         return dependencyProvider;
     }
 
+    /**
+     * @param project the project
+     * 
+     * @return the index of the project pom.xml, shared by all checkers
+     * 
+     * @throws Exception if the pom.xml can't be read
+     */
+    protected PomModelIndex getPomModelIndex(MavenProject project) throws Exception {
+        return pomModelIndexProvider.getPomModelIndex(project);
+    }
+
     /**
      * @return the xPath
      */
@@ -18,9 +18,17 @@ package org.jboss.maven.plugins.qstools;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import org.apache.maven.execution.MavenSession;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.model.DependencyManagement;
 import org.apache.maven.plugin.AbstractMojo;
@@ -33,6 +41,7 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.jboss.shrinkwrap.resolver.api.NoResolvedResultException;
 import org.jboss.shrinkwrap.resolver.api.maven.Maven;
+import org.jboss.shrinkwrap.resolver.api.maven.PomEquippedResolveStage;
 
 /**
  * This Mojo is used to check if all Dependencies declared in a {@code<dependencyManagement/>} section of a BOM is resolvable.
@@ -44,6 +53,8 @@ import org.jboss.shrinkwrap.resolver.api.maven.Maven;
     aggregator = false)
 public class BomCheckerMojo extends AbstractMojo {
 
+    private static final int MAX_THREADS = 8;
+
     @Parameter(defaultValue = "${project}", readonly = true)
     private MavenProject project;
 
@@ -53,6 +64,15 @@ public class BomCheckerMojo extends AbstractMojo {
     @Parameter(property = "qstools.bom-check.ignoredDependencies")
     private List<String> ignoredDependencies = new ArrayList<String>();
 
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession mavenSession;
+
+    /**
+     * Resolve the dependencies only from the local Maven repository. Maven's offline mode (-o) has the same effect.
+     */
+    @Parameter(property = "qstools.offline", defaultValue = "false")
+    private boolean offline;
+
     /*
      * (non-Javadoc)
      * 
@@ -64,6 +84,11 @@ public class BomCheckerMojo extends AbstractMojo {
         Logger.getLogger("org.jboss.shrinkwrap.resolver.impl").setLevel(Level.SEVERE);
         List<NoResolvedResultException> exceptions = new ArrayList<NoResolvedResultException>();
         getLog().info("Verifying if the dependencies on project's Dependency Management section are resolvable");
+        boolean workOffline = offline || mavenSession.isOffline();
+        if (workOffline) {
+            getLog().info("Running offline: the dependencies will be resolved only from the local Maven repository");
+        }
+        List<String> gavs = new ArrayList<String>();
         DependencyManagement depmgmt = project.getDependencyManagement();
         if (depmgmt != null) {
             List<Dependency> dependencies = depmgmt.getDependencies();
@@ -73,29 +98,21 @@ public class BomCheckerMojo extends AbstractMojo {
                     && (dep.getScope().equals("runtime") || dep.getScope().equals("system") || dep.getScope().equals("test"))) {
                     getLog().debug("Ignoring " + dep.getScope() + " scoped dependency " + dep);
                 } else {
-                    try {
-                        String pkg = dep.getType() == null ? "jar" : dep.getType();
-                        String gav = dep.getGroupId() + ":" + dep.getArtifactId() + ":" + pkg + ":" + dep.getVersion();
-                        if (ignoredDependencies.contains(gav)) {
-                            getLog().warn(gav + " ignored. It won't be resolved");
-                        } else {
-                            getLog().debug("Trying to resolve " + gav + " in " + (dep.getScope() == null ? "default[compile]" : dep.getScope()) + " scope");
-                            Maven.configureResolver()
-                                .withMavenCentralRepo(true)
-                                .withClassPathResolution(false)
-                                .loadPomFromFile(project.getFile())
-                                .resolve(gav)
-                                .withTransitivity()
-                                .asFile();
-                        }
-                    } catch (NoResolvedResultException e) {
-                        // Collect all resolution failures
-                        exceptions.add(e);
+                    String pkg = dep.getType() == null ? "jar" : dep.getType();
+                    String gav = dep.getGroupId() + ":" + dep.getArtifactId() + ":" + pkg + ":" + dep.getVersion();
+                    if (ignoredDependencies.contains(gav)) {
+                        getLog().warn(gav + " ignored. It won't be resolved");
+                    } else {
+                        getLog().debug("Trying to resolve " + gav + " in " + (dep.getScope() == null ? "default[compile]" : dep.getScope()) + " scope");
+                        gavs.add(gav);
                     }
                 }
 
             }
         }
+        if (!gavs.isEmpty()) {
+            exceptions.addAll(resolve(gavs, workOffline));
+        }
         if (exceptions.isEmpty()) {
             getLog().info("All Dependencies were resolved");
         } else {
@@ -110,4 +127,73 @@ public class BomCheckerMojo extends AbstractMojo {
 
     }
 
+    /**
+     * Resolve the dependencies concurrently. Each resolver session is configured and loads the BOM only once, and is
+     * then reused by the resolutions.
+     * 
+     * @return the resolution failures, on the order of the dependencies
+     */
+    private List<NoResolvedResultException> resolve(List<String> gavs, final boolean workOffline) throws MojoExecutionException {
+        int threads = Math.min(MAX_THREADS, gavs.size());
+        // A session holds the dependencies being resolved, so each one is used by a single resolution at a time
+        final BlockingQueue<PomEquippedResolveStage> sessions = new ArrayBlockingQueue<PomEquippedResolveStage>(threads);
+        for (int i = 0; i < threads; i++) {
+            sessions.add(newSession(workOffline));
+        }
+        long start = System.currentTimeMillis();
+        List<Future<NoResolvedResultException>> futures = new ArrayList<Future<NoResolvedResultException>>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            for (final String gav : gavs) {
+                futures.add(executor.submit(new Callable<NoResolvedResultException>() {
+
+                    @Override
+                    public NoResolvedResultException call() throws Exception {
+                        PomEquippedResolveStage session = sessions.take();
+                        try {
+                            session.resolve(gav).withTransitivity().asFile();
+                            return null;
+                        } catch (NoResolvedResultException e) {
+                            // A failed resolution keeps its dependency on the session, so it is replaced
+                            session = newSession(workOffline);
+                            return e;
+                        } finally {
+                            // A session is always given back, even if it couldn't be replaced, so the other
+                            // resolutions never wait for it forever. The replacement failure aborts the run.
+                            sessions.add(session);
+                        }
+                    }
+                }));
+            }
+            List<NoResolvedResultException> exceptions = new ArrayList<NoResolvedResultException>();
+            for (Future<NoResolvedResultException> future : futures) {
+                NoResolvedResultException e = future.get();
+                if (e != null) {
+                    // Collect all resolution failures
+                    exceptions.add(e);
+                }
+            }
+            getLog().debug(gavs.size() + " dependencies resolved in " + (System.currentTimeMillis() - start) + " ms");
+            return exceptions;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new MojoExecutionException(e.getCause().getMessage(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MojoExecutionException("Interrupted while resolving the dependencies", e);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private PomEquippedResolveStage newSession(boolean workOffline) {
+        return Maven.configureResolver()
+            .withMavenCentralRepo(true)
+            .withClassPathResolution(false)
+            .workOffline(workOffline)
+            .loadPomFromFile(project.getFile());
+    }
+
 }
@@ -19,7 +19,7 @@ package org.jboss.maven.plugins.qstools;
 import java.io.FileInputStream;
 import java.net.URL;
 import java.util.List;
-import java.util.Properties;
+import java.util.Map;
 
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
@@ -39,6 +39,7 @@ import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.PlexusContainer;
 import org.codehaus.plexus.interpolation.InterpolationException;
 import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
+import org.jboss.maven.plugins.qstools.config.HttpClientProvider;
 import org.jboss.maven.plugins.qstools.config.Rules;
 import org.jboss.maven.plugins.qstools.maven.MavenDependency;
 import org.jboss.maven.plugins.qstools.xml.PositionalXMLReader;
@@ -75,6 +76,9 @@ public class BomUpdaterMojo extends AbstractMojo {
     @Component
     private PlexusContainer container;
 
+    @Component
+    private HttpClientProvider httpClientProvider;
+
     private boolean pomModified = false;
 
     private int updatedProjects = 0;
@@ -86,6 +90,25 @@ public class BomUpdaterMojo extends AbstractMojo {
         defaultValue = "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/qstools_config.yaml")
     private URL configFileURL;
 
+    /**
+     * Directory of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.directory")
+    private String cacheDirectory;
+
+    /**
+     * Maximum size, in MB, of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.maxSize")
+    private Long cacheMaxSize;
+
+    /**
+     * Run without network access, using only the local caches and the local Maven repository. Maven's offline mode (-o)
+     * has the same effect.
+     */
+    @Parameter(property = "qstools.offline", defaultValue = "false")
+    private boolean offline;
+
     private XPath xPath = XPathFactory.newInstance().newXPath();
 
     /*
@@ -113,6 +136,8 @@ public class BomUpdaterMojo extends AbstractMojo {
             }
         } catch (Exception e) {
             throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            httpClientProvider.close();
         }
     }
 
@@ -122,6 +147,13 @@ public class BomUpdaterMojo extends AbstractMojo {
 
         container.getContext().put(Constants.LOG_CONTEXT, getLog());
         container.getContext().put(Constants.MAVEN_SESSION_CONTEXT, mavenSession);
+        if (cacheDirectory != null) {
+            container.getContext().put(Constants.CACHE_DIRECTORY_CONTEXT, cacheDirectory);
+        }
+        if (cacheMaxSize != null) {
+            container.getContext().put(Constants.CACHE_MAX_SIZE_CONTEXT, cacheMaxSize);
+        }
+        container.getContext().put(Constants.OFFLINE_CONTEXT, isOffline());
     }
 
     /**
@@ -149,7 +181,7 @@ public class BomUpdaterMojo extends AbstractMojo {
             Node dependency = dependencies.item(x);
             MavenDependency mavenDependency = dependencyProvider.getDependencyFromNode(project, dependency);
             String version = mavenDependency.getInterpoledVersion();
-            String expectedBomVersion = (String) rules.getExpectedBomVersion().get(mavenDependency.getGroupId());
+            String expectedBomVersion = rules.getExpectedBomVersion().get(mavenDependency.getGroupId());
             // If not using expected Bom Version
             if (expectedBomVersion != null && !expectedBomVersion.equals(version)) {
                 String declaredVersion = mavenDependency.getDeclaredVersion().replace("${", "").replace("}", "");
@@ -182,13 +214,13 @@ public class BomUpdaterMojo extends AbstractMojo {
     }
 
     private void replaceBOMsIfNeeded(MavenProject project, NodeList dependencies, Rules rules) throws InterpolationException {
-        Properties bomsMigration = rules.getProjectBomsMigration();
+        Map<String, String> bomsMigration = rules.getProjectBomsMigration();
         // Iterate over all Declared Managed Dependencies - Needs BOM replacement?
         for (int x = 0; x < dependencies.getLength(); x++) {
             Node dependency = dependencies.item(x);
             MavenDependency mavenDependency = dependencyProvider.getDependencyFromNode(project, dependency);
             String oldBomGA = mavenDependency.getGroupId() + "|" + mavenDependency.getArtifactId();
-            String newBomGAV = bomsMigration.getProperty(oldBomGA);
+            String newBomGAV = bomsMigration.get(oldBomGA);
 
             if ("REMOVE".equals(newBomGAV)) {
                 removeDependency(dependency);
@@ -231,4 +263,11 @@ public class BomUpdaterMojo extends AbstractMojo {
         }
     }
 
+    /**
+     * @return true if qstools.offline or Maven's offline mode is set
+     */
+    private boolean isOffline() {
+        return offline || mavenSession.isOffline();
+    }
+
 }
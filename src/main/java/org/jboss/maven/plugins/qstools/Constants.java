@@ -16,6 +16,8 @@
  */
 package org.jboss.maven.plugins.qstools;
 
+import java.io.File;
+
 /**
  * @author Rafael Benevides
  * 
@@ -37,4 +39,24 @@ public class Constants {
     public static final String PLUGIN_MANAGER = "qstools.plugin_manager";
 
     public static final String TARGET_PRODUCT_TAG = "Target Product:";
+
+    public static final String SCHEMA_CATALOG_CONTEXT = "qstools.schemas.catalog";
+
+    public static final String OFFLINE_CONTEXT = "qstools.offline";
+
+    public static final String CHECKSTYLE_COMPOSITE_CONTEXT = "qstools.checkstyle.composite";
+
+    public static final String POM_MODEL_INDEX_CONTEXT = "qstools.pom.model.index";
+
+    public static final String PROJECT_INTERPOLATION_CONTEXT = "qstools.project.interpolation";
+
+    public static final String CACHE_DIRECTORY_CONTEXT = "qstools.cache.directory";
+
+    public static final String CACHE_MAX_SIZE_CONTEXT = "qstools.cache.maxSize";
+
+    public static final long DEFAULT_CACHE_MAX_SIZE_MB = 100;
+
+    public static final File DEFAULT_CACHE_DIRECTORY = new File(System.getProperty("user.home"), ".qstools" + File.separator + "cache");
+
+    public static final File DEFAULT_SCHEMA_CATALOG = new File(System.getProperty("user.home"), ".qstools" + File.separator + "schemas");
 }
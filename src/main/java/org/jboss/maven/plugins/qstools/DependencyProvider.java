@@ -18,12 +18,10 @@ package org.jboss.maven.plugins.qstools;
 
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.interpolation.InterpolationException;
-import org.codehaus.plexus.interpolation.ObjectBasedValueSource;
-import org.codehaus.plexus.interpolation.PrefixedValueSourceWrapper;
-import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
-import org.codehaus.plexus.interpolation.StringSearchInterpolator;
 import org.jboss.maven.plugins.qstools.maven.MavenDependency;
+import org.jboss.maven.plugins.qstools.maven.ProjectInterpolator;
 import org.w3c.dom.Node;
 
 /**
@@ -33,6 +31,9 @@ import org.w3c.dom.Node;
 @Component(role = DependencyProvider.class)
 public class DependencyProvider {
 
+    @Requirement
+    private ProjectInterpolator projectInterpolator;
+
     public MavenDependency getDependencyFromNode(MavenProject project, Node dependency) throws InterpolationException {
         String groupId = null;
         String artifactId = null;
@@ -63,12 +64,7 @@ public class DependencyProvider {
     }
 
     private String resolveMavenProperty(MavenProject project, String textContent) throws InterpolationException {
-        StringSearchInterpolator interpolator = new StringSearchInterpolator();
-        // Associate project.model with ${project.*} and ${pom.*} prefixes
-        PrefixedValueSourceWrapper modelWrapper = new PrefixedValueSourceWrapper(new ObjectBasedValueSource(project.getModel()), "project.", true);
-        interpolator.addValueSource(modelWrapper);
-        interpolator.addValueSource(new PropertiesBasedValueSource(project.getModel().getProperties()));
-        return interpolator.interpolate(textContent);
+        return projectInterpolator.interpolate(project, textContent);
     }
 
 }
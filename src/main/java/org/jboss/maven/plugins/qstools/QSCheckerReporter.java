@@ -52,10 +52,16 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.reporting.AbstractMavenReport;
 import org.apache.maven.reporting.MavenReportException;
 import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.context.ContextException;
 import org.jboss.jdf.stacks.client.StacksClient;
 import org.jboss.jdf.stacks.model.Stacks;
 import org.jboss.maven.plugins.qstools.checkers.QSChecker;
 import org.jboss.maven.plugins.qstools.checkers.Violation;
+import org.jboss.maven.plugins.qstools.config.CentralArtifactResolver;
+import org.jboss.maven.plugins.qstools.config.HttpClientProvider;
+import org.jboss.maven.plugins.qstools.config.ResourcePrefetcher;
+import org.jboss.maven.plugins.qstools.config.SchemaCatalog;
+import org.jboss.maven.plugins.qstools.config.StacksIndex;
 
 /**
  * 
@@ -70,6 +76,21 @@ public class QSCheckerReporter extends AbstractMavenReport {
     @Component
     private PlexusContainer container;
 
+    @Component
+    private ResourcePrefetcher resourcePrefetcher;
+
+    @Component
+    private HttpClientProvider httpClientProvider;
+
+    @Component
+    private SchemaCatalog schemaCatalog;
+
+    @Component
+    private CentralArtifactResolver centralArtifactResolver;
+
+    @Component
+    private StacksIndex stacksIndex;
+
     @Component
     private Renderer siteRenderer;
 
@@ -92,6 +113,25 @@ public class QSCheckerReporter extends AbstractMavenReport {
         defaultValue = "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/qstools_config.yaml")
     private URL configFileURL;
 
+    /**
+     * Directory of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.directory")
+    private String cacheDirectory;
+
+    /**
+     * Maximum size, in MB, of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.maxSize")
+    private Long cacheMaxSize;
+
+    /**
+     * Run without network access, using only the local caches and the local Maven repository. Maven's offline mode (-o)
+     * has the same effect.
+     */
+    @Parameter(property = "qstools.offline", defaultValue = "false")
+    private boolean offline;
+
     /**
      * Overwrite the stacks file
      */
@@ -104,6 +144,18 @@ public class QSCheckerReporter extends AbstractMavenReport {
     @Parameter(property = "qstools.stacks.reload")
     private boolean forceStacksReload;
 
+    /**
+     * Local XML catalog (directory or jar) used to resolve XML Schemas and DTDs before the network
+     */
+    @Parameter(property = "qstools.schemas.catalog")
+    private String schemasCatalog;
+
+    /**
+     * Run all Checkstyle based checkers on a single Checkstyle pass
+     */
+    @Parameter(property = "qstools.checkstyle.composite", defaultValue = "true")
+    private boolean checkstyleComposite;
+
     /*
      * (non-Javadoc)
      * 
@@ -205,6 +257,10 @@ public class QSCheckerReporter extends AbstractMavenReport {
             getLog().info(String.format(msg, reportName));
         } catch (Exception e) {
             throw new MavenReportException(e.getMessage(), e);
+        } finally {
+            httpClientProvider.close();
+            schemaCatalog.close();
+            centralArtifactResolver.clear();
         }
         endReport();
 
@@ -214,7 +270,7 @@ public class QSCheckerReporter extends AbstractMavenReport {
      * Check if a Custom Stacks URL was informed and configure Stacks client
      * 
      */
-    private void configurePlugin() {
+    private void configurePlugin() throws ContextException {
         getLog().info("Using the following QSTools config file: " + configFileURL);
         container.getContext().put(Constants.CONFIG_FILE_CONTEXT, configFileURL);
 
@@ -226,13 +282,30 @@ public class QSCheckerReporter extends AbstractMavenReport {
             getLog().info("FORCE STACKS RELOAD: Local 24 hours cache erased! (stacks.yaml will be downloaded again)");
             stacksClient.getLocalCacheFile().delete();
         }
+        if (isOffline()) {
+            getLog().info("Running offline: only local caches and the local Maven repository will be used");
+            stacksClient.getActualConfiguration().setOnline(false);
+        }
         getLog().info("Using the following Stacks YML file: " + stacksClient.getActualConfiguration().getUrl());
         Stacks stacks = stacksClient.getStacks();
         container.getContext().put(Constants.STACKS_CONTEXT, stacks);
-
         container.getContext().put(Constants.LOG_CONTEXT, getLog());
+        stacksIndex.index(stacks);
+
         container.getContext().put(Constants.MAVEN_SESSION_CONTEXT, mavenSession);
+        if (cacheDirectory != null) {
+            container.getContext().put(Constants.CACHE_DIRECTORY_CONTEXT, cacheDirectory);
+        }
+        if (cacheMaxSize != null) {
+            container.getContext().put(Constants.CACHE_MAX_SIZE_CONTEXT, cacheMaxSize);
+        }
+        container.getContext().put(Constants.OFFLINE_CONTEXT, isOffline());
+        container.getContext().put(Constants.CHECKSTYLE_COMPOSITE_CONTEXT, checkstyleComposite);
         container.getContext().put(Constants.IGNORED_QUICKSTARTS_CONTEXT, Utils.readIgnoredFile());
+        if (schemasCatalog != null) {
+            container.getContext().put(Constants.SCHEMA_CATALOG_CONTEXT, schemasCatalog);
+        }
+        resourcePrefetcher.prefetch(reactorProjects, true);
     }
 
     /**
@@ -557,4 +630,11 @@ public class QSCheckerReporter extends AbstractMavenReport {
         sink.close();
     }
 
+    /**
+     * @return true if qstools.offline or Maven's offline mode is set
+     */
+    private boolean isOffline() {
+        return offline || mavenSession.isOffline();
+    }
+
 }
@@ -37,6 +37,10 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.utils.StringUtils;
 import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.context.ContextException;
+import org.jboss.maven.plugins.qstools.config.HttpClientProvider;
+import org.jboss.maven.plugins.qstools.config.ResourcePrefetcher;
+import org.jboss.maven.plugins.qstools.config.SchemaCatalog;
 import org.jboss.maven.plugins.qstools.fixers.QSFixer;
 
 /**
@@ -52,6 +56,15 @@ public class QSFixViolationsMojo extends AbstractMojo {
     @Component
     private PlexusContainer container;
 
+    @Component
+    private ResourcePrefetcher resourcePrefetcher;
+
+    @Component
+    private HttpClientProvider httpClientProvider;
+
+    @Component
+    private SchemaCatalog schemaCatalog;
+
     @Parameter(defaultValue = "${session}", readonly = true)
     private MavenSession mavenSession;
 
@@ -68,6 +81,25 @@ public class QSFixViolationsMojo extends AbstractMojo {
         defaultValue = "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/qstools_config.yaml")
     private URL configFileURL;
 
+    /**
+     * Directory of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.directory")
+    private String cacheDirectory;
+
+    /**
+     * Maximum size, in MB, of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.maxSize")
+    private Long cacheMaxSize;
+
+    /**
+     * Run without network access, using only the local caches and the local Maven repository. Maven's offline mode (-o)
+     * has the same effect.
+     */
+    @Parameter(property = "qstools.offline", defaultValue = "false")
+    private boolean offline;
+
     @Parameter(property = "reactorProjects", readonly = true, required = true)
     private List<MavenProject> reactorProjects;
 
@@ -144,6 +176,9 @@ public class QSFixViolationsMojo extends AbstractMojo {
             }
         } catch (Exception e) {
             throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            httpClientProvider.close();
+            schemaCatalog.close();
         }
     }
 
@@ -151,14 +186,22 @@ public class QSFixViolationsMojo extends AbstractMojo {
      * Check if a Custom Stacks URL was informed and configure Stacks client
      * 
      */
-    private void configurePlugin() {
+    private void configurePlugin() throws ContextException {
         getLog().info("Using the following QSTools config file: " + configFileURL);
         container.getContext().put(Constants.CONFIG_FILE_CONTEXT, configFileURL);
 
         container.getContext().put(Constants.LOG_CONTEXT, getLog());
         container.getContext().put(Constants.MAVEN_SESSION_CONTEXT, mavenSession);
+        if (cacheDirectory != null) {
+            container.getContext().put(Constants.CACHE_DIRECTORY_CONTEXT, cacheDirectory);
+        }
+        if (cacheMaxSize != null) {
+            container.getContext().put(Constants.CACHE_MAX_SIZE_CONTEXT, cacheMaxSize);
+        }
+        container.getContext().put(Constants.OFFLINE_CONTEXT, isOffline());
         container.getContext().put(Constants.IGNORED_QUICKSTARTS_CONTEXT, Utils.readIgnoredFile());
         container.getContext().put(Constants.PLUGIN_MANAGER, pluginManager);
+        resourcePrefetcher.prefetch(reactorProjects, false);
     }
 
     private Comparator<QSFixer> fixerComparator = new Comparator<QSFixer>() {
@@ -174,4 +217,11 @@ public class QSFixViolationsMojo extends AbstractMojo {
         }
     };
 
+    /**
+     * @return true if qstools.offline or Maven's offline mode is set
+     */
+    private boolean isOffline() {
+        return offline || mavenSession.isOffline();
+    }
+
 }
@@ -27,7 +27,6 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.xpath.XPath;
 import javax.xml.xpath.XPathConstants;
@@ -47,12 +46,17 @@ import org.apache.maven.plugins.annotations.ResolutionScope;
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.utils.StringUtils;
 import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.context.ContextException;
 import org.jboss.maven.plugins.qstools.common.ProjectUtil;
 import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
+import org.jboss.maven.plugins.qstools.config.HttpClientProvider;
+import org.jboss.maven.plugins.qstools.config.ResourcePrefetcher;
 import org.jboss.maven.plugins.qstools.config.Rules;
+import org.jboss.maven.plugins.qstools.config.SchemaCatalog;
 import org.jboss.maven.plugins.qstools.fixers.PomElementOrderFixer;
 import org.jboss.maven.plugins.qstools.fixers.QSFixer;
 import org.jboss.maven.plugins.qstools.xml.PositionalXMLReader;
+import org.jboss.maven.plugins.qstools.xml.XMLParserPool;
 import org.jboss.maven.plugins.qstools.xml.XMLUtil;
 import org.w3c.dom.Comment;
 import org.w3c.dom.Document;
@@ -84,6 +88,25 @@ public class QSRepositoriesMojo extends AbstractMojo {
         defaultValue = "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/qstools_config.yaml")
     private URL configFileURL;
 
+    /**
+     * Directory of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.directory")
+    private String cacheDirectory;
+
+    /**
+     * Maximum size, in MB, of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.maxSize")
+    private Long cacheMaxSize;
+
+    /**
+     * Run without network access, using only the local caches and the local Maven repository. Maven's offline mode (-o)
+     * has the same effect.
+     */
+    @Parameter(property = "qstools.offline", defaultValue = "false")
+    private boolean offline;
+
     @Parameter(property = "reactorProjects", readonly = true, required = true)
     private List<MavenProject> reactorProjects;
 
@@ -93,6 +116,15 @@ public class QSRepositoriesMojo extends AbstractMojo {
     @Component
     private PlexusContainer container;
 
+    @Component
+    private ResourcePrefetcher resourcePrefetcher;
+
+    @Component
+    private HttpClientProvider httpClientProvider;
+
+    @Component
+    private SchemaCatalog schemaCatalog;
+
     @Component
     private ProjectUtil projectUtil;
 
@@ -172,6 +204,9 @@ public class QSRepositoriesMojo extends AbstractMojo {
             }
         } catch (Exception e) {
             throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            httpClientProvider.close();
+            schemaCatalog.close();
         }
     }
 
@@ -179,14 +214,22 @@ public class QSRepositoriesMojo extends AbstractMojo {
      * Check if a Custom Stacks URL was informed and configure Stacks client
      * 
      */
-    private void configurePlugin() {
+    private void configurePlugin() throws ContextException {
         getLog().info("Using the following QSTools config file: " + configFileURL);
         container.getContext().put(Constants.CONFIG_FILE_CONTEXT, configFileURL);
 
         container.getContext().put(Constants.LOG_CONTEXT, getLog());
         container.getContext().put(Constants.MAVEN_SESSION_CONTEXT, mavenSession);
+        if (cacheDirectory != null) {
+            container.getContext().put(Constants.CACHE_DIRECTORY_CONTEXT, cacheDirectory);
+        }
+        if (cacheMaxSize != null) {
+            container.getContext().put(Constants.CACHE_MAX_SIZE_CONTEXT, cacheMaxSize);
+        }
+        container.getContext().put(Constants.OFFLINE_CONTEXT, isOffline());
         container.getContext().put(Constants.IGNORED_QUICKSTARTS_CONTEXT, Utils.readIgnoredFile());
         container.getContext().put(Constants.PLUGIN_MANAGER, pluginManager);
+        resourcePrefetcher.prefetch(reactorProjects, false);
     }
 
     private void removePreviousRepositories() throws Exception {
@@ -267,11 +310,19 @@ public class QSRepositoriesMojo extends AbstractMojo {
             urlElement.setTextContent(repo[0]);
             repositoryElement.appendChild(urlElement);
             String parsedComplement = complement.replace("RELEASE", repo[1]).replace("SNAPSHOT", repo[2]);
-            Document d = DocumentBuilderFactory.newInstance().newDocumentBuilder().parse(new InputSource(new StringReader(parsedComplement)));
+            Document d = XMLParserPool.getDocumentBuilder().parse(new InputSource(new StringReader(parsedComplement)));
             repositoryElement.appendChild(doc.importNode(d.getFirstChild().getFirstChild(), true));
             repositoryElement.appendChild(doc.importNode(d.getFirstChild().getLastChild(), true));
             repositoriesElement.appendChild(repositoryElement);
         }
 
     }
+
+    /**
+     * @return true if qstools.offline or Maven's offline mode is set
+     */
+    private boolean isOffline() {
+        return offline || mavenSession.isOffline();
+    }
+
 }
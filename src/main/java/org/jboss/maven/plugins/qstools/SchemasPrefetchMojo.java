@@ -0,0 +1,284 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.URL;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.Component;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.codehaus.plexus.PlexusContainer;
+import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
+import org.jboss.maven.plugins.qstools.config.HttpClientProvider;
+import org.jboss.maven.plugins.qstools.config.Resources;
+import org.jboss.maven.plugins.qstools.config.Rules;
+import org.jboss.maven.plugins.qstools.config.SchemaCatalog;
+import org.jboss.maven.plugins.qstools.xml.XMLSchemaReferences;
+
+/**
+ * Download all XML Schemas and DTDs referenced by the project XML files (and the Schemas they import/include) to the local
+ * XML catalog used by ValidXMLSchemaChecker. After running it, the XML validation doesn't need network access.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Mojo(name = "schemas-prefetch", defaultPhase = LifecyclePhase.VERIFY, requiresProject = true, threadSafe = true, aggregator = true)
+public class SchemasPrefetchMojo extends AbstractMojo {
+
+    @Component
+    private PlexusContainer container;
+
+    @Component
+    private ConfigurationProvider configurationProvider;
+
+    @Component
+    private Resources resources;
+
+    @Component
+    private SchemaCatalog schemaCatalog;
+
+    @Component
+    private HttpClientProvider httpClientProvider;
+
+    @Parameter(defaultValue = "${session}", readonly = true)
+    private MavenSession mavenSession;
+
+    @Parameter(property = "reactorProjects", readonly = true, required = true)
+    private List<MavenProject> reactorProjects;
+
+    /**
+     * Overwrite the config file
+     */
+    @Parameter(property = "qstools.configFileURL",
+        defaultValue = "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/qstools_config.yaml")
+    private URL configFileURL;
+
+    /**
+     * Directory of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.directory")
+    private String cacheDirectory;
+
+    /**
+     * Maximum size, in MB, of the local cache of remote resources
+     */
+    @Parameter(property = "qstools.cache.maxSize")
+    private Long cacheMaxSize;
+
+    /**
+     * Run without network access, using only the local caches and the local Maven repository. Maven's offline mode (-o)
+     * has the same effect.
+     */
+    @Parameter(property = "qstools.offline", defaultValue = "false")
+    private boolean offline;
+
+    /**
+     * Local XML catalog directory
+     */
+    @Parameter(property = "qstools.schemas.catalog")
+    private String schemasCatalog;
+
+    private XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+
+    public SchemasPrefetchMojo() {
+        // Some Schemas declare a DOCTYPE. It is not needed to find the imports.
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+    }
+
+    /*
+     * (non-Javadoc)
+     *
+     * @see org.apache.maven.plugin.Mojo#execute()
+     */
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        try {
+            configurePlugin();
+            getLog().info("Prefetching XML Schemas and DTDs to " + schemaCatalog.getLocation());
+            LinkedList<CatalogEntry> pending = new LinkedList<CatalogEntry>();
+            for (MavenProject project : reactorProjects) {
+                Rules rules = configurationProvider.getQuickstartsRules(project.getGroupId());
+                List<File> xmlFiles = FileUtils.getFiles(project.getBasedir(), "**/*.xml", rules.getExcludes());
+                for (File xml : xmlFiles) {
+                    addReferences(xml, pending);
+                }
+            }
+            int stored = 0;
+            Set<String> visited = new HashSet<String>();
+            while (!pending.isEmpty()) {
+                CatalogEntry entry = pending.removeFirst();
+                String systemId = entry.url.toString();
+                if (!visited.add(systemId) || !entry.url.getProtocol().startsWith("http")) {
+                    continue;
+                }
+                byte[] content = getContent(entry);
+                if (content == null) {
+                    continue;
+                }
+                if (!entry.dtd) {
+                    addImportedSchemas(entry.url, content, pending);
+                }
+                if (!schemaCatalog.contains(systemId)) {
+                    schemaCatalog.store(entry.namespaceURI, entry.publicId, systemId, new ByteArrayInputStream(content));
+                    stored++;
+                }
+            }
+            schemaCatalog.save();
+            getLog().info(stored + " new XML Schemas/DTDs stored. Total of references processed: " + visited.size());
+        } catch (Exception e) {
+            throw new MojoExecutionException(e.getMessage(), e);
+        } finally {
+            httpClientProvider.close();
+            schemaCatalog.close();
+        }
+    }
+
+    private void configurePlugin() {
+        getLog().info("Using the following QSTools config file: " + configFileURL);
+        container.getContext().put(Constants.CONFIG_FILE_CONTEXT, configFileURL);
+
+        container.getContext().put(Constants.LOG_CONTEXT, getLog());
+        container.getContext().put(Constants.MAVEN_SESSION_CONTEXT, mavenSession);
+        if (cacheDirectory != null) {
+            container.getContext().put(Constants.CACHE_DIRECTORY_CONTEXT, cacheDirectory);
+        }
+        if (cacheMaxSize != null) {
+            container.getContext().put(Constants.CACHE_MAX_SIZE_CONTEXT, cacheMaxSize);
+        }
+        container.getContext().put(Constants.OFFLINE_CONTEXT, isOffline());
+        container.getContext().put(Constants.IGNORED_QUICKSTARTS_CONTEXT, Utils.readIgnoredFile());
+        if (schemasCatalog != null) {
+            container.getContext().put(Constants.SCHEMA_CATALOG_CONTEXT, schemasCatalog);
+        }
+    }
+
+    /**
+     * Get the Schema/DTD content from the catalog (when already stored) or from the remote location
+     */
+    private byte[] getContent(CatalogEntry entry) throws Exception {
+        String systemId = entry.url.toString();
+        InputStream is = schemaCatalog.contains(systemId) ? schemaCatalog.resolve(entry.namespaceURI, entry.publicId, systemId) : null;
+        try {
+            if (is == null) {
+                getLog().debug("Retrieving " + systemId);
+                is = resources.getFileInputStream(entry.url);
+            }
+            return IOUtils.toByteArray(is);
+        } catch (Exception e) {
+            getLog().warn("Can't retrieve " + systemId + ": " + e.getMessage());
+            return null;
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    /**
+     * Add the Schemas and DTD declared by a XML file
+     */
+    private void addReferences(File xml, List<CatalogEntry> pending) throws Exception {
+        XMLSchemaReferences references;
+        try {
+            references = XMLSchemaReferences.read(xml);
+        } catch (XMLStreamException e) {
+            getLog().debug("Ignoring " + xml + ". It is not well-formed: " + e.getMessage());
+            return;
+        }
+        URI base = xml.toURI();
+        for (Map.Entry<String, String> schemaLocation : references.getSchemaLocations().entrySet()) {
+            pending.add(new CatalogEntry(schemaLocation.getKey(), null, base.resolve(schemaLocation.getValue()).toURL(), false));
+        }
+        if (references.getNoNamespaceSchemaLocation() != null) {
+            pending.add(new CatalogEntry(null, null, base.resolve(references.getNoNamespaceSchemaLocation()).toURL(), false));
+        }
+        if (references.getDtdSystemId() != null) {
+            pending.add(new CatalogEntry(null, references.getDtdPublicId(), base.resolve(references.getDtdSystemId()).toURL(), true));
+        }
+    }
+
+    /**
+     * Add the Schemas referenced by xs:import, xs:include and xs:redefine elements
+     */
+    private void addImportedSchemas(URL schemaURL, byte[] content, List<CatalogEntry> pending) throws Exception {
+        XMLStreamReader reader = inputFactory.createXMLStreamReader(new ByteArrayInputStream(content));
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT
+                    && XMLConstants.W3C_XML_SCHEMA_NS_URI.equals(reader.getNamespaceURI())
+                    && reader.getLocalName().matches("import|include|redefine")) {
+                    String location = reader.getAttributeValue(null, "schemaLocation");
+                    if (location != null) {
+                        String namespace = reader.getAttributeValue(null, "namespace");
+                        pending.add(new CatalogEntry(namespace, null, schemaURL.toURI().resolve(location.trim()).toURL(), false));
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            getLog().warn("Can't read the Schema " + schemaURL + ": " + e.getMessage());
+        } finally {
+            reader.close();
+        }
+    }
+
+    private static class CatalogEntry {
+
+        private String namespaceURI;
+
+        private String publicId;
+
+        private URL url;
+
+        private boolean dtd;
+
+        public CatalogEntry(String namespaceURI, String publicId, URL url, boolean dtd) {
+            this.namespaceURI = namespaceURI;
+            this.publicId = publicId;
+            this.url = url;
+            this.dtd = dtd;
+        }
+    }
+
+    /**
+     * @return true if qstools.offline or Maven's offline mode is set
+     */
+    private boolean isOffline() {
+        return offline || mavenSession.isOffline();
+    }
+
+}
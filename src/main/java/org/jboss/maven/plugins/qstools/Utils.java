@@ -23,8 +23,26 @@ import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+
 public class Utils {
 
+    /**
+     * Check if QSTools is running offline (qstools.offline or Maven's -o)
+     * 
+     * @param context the plexus context configured by the Mojo
+     * 
+     * @return true if no network access should be made
+     */
+    public static boolean isOffline(Context context) {
+        try {
+            return context.contains(Constants.OFFLINE_CONTEXT) && Boolean.TRUE.equals(context.get(Constants.OFFLINE_CONTEXT));
+        } catch (ContextException e) {
+            return false;
+        }
+    }
+
     /**
      * Read Ignored quickstarts
      * 
@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.checkers;
+
+import java.io.File;
+import java.util.List;
+
+import org.apache.maven.project.MavenProject;
+import org.jboss.maven.plugins.qstools.checkers.ByteScanner.ScanResult;
+import org.jboss.maven.plugins.qstools.config.Rules;
+
+/**
+ * Base of the checkers that look for bytes on text files, using the {@link ByteScanner}. Binary files are skipped.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public abstract class AbstractByteScannerChecker extends AbstractParallelFileChecker {
+
+    @Override
+    FileCheck createFileCheck(MavenProject project, Rules rules) {
+        return new FileCheck() {
+
+            @Override
+            public List<Violation> check(File file) throws Exception {
+                return getViolations(ByteScanner.scan(file, isFindTabs(), isFindNonAscii()));
+            }
+        };
+    }
+
+    /**
+     * @return if the {@link ByteScanner} should look for tabs
+     */
+    abstract boolean isFindTabs();
+
+    /**
+     * @return if the {@link ByteScanner} should look for non US-ASCII characters
+     */
+    abstract boolean isFindNonAscii();
+
+    /**
+     * @param result the lines found on a file
+     *
+     * @return the violations of the file
+     */
+    abstract List<Violation> getViolations(ScanResult result);
+
+}
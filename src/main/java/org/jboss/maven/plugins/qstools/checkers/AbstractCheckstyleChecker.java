@@ -22,24 +22,27 @@ import java.util.Map;
 import java.util.TreeMap;
 
 import org.apache.maven.execution.MavenSession;
-import org.apache.maven.plugin.checkstyle.CheckstyleExecutor;
-import org.apache.maven.plugin.checkstyle.CheckstyleExecutorRequest;
-import org.apache.maven.plugin.checkstyle.CheckstyleResults;
-import org.apache.maven.plugin.checkstyle.DefaultCheckstyleExecutor;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.jboss.maven.plugins.qstools.Constants;
 import org.jboss.maven.plugins.qstools.QSToolsException;
+import org.jboss.maven.plugins.qstools.checkers.CheckstyleResultCache.CachedEvent;
 import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
-import org.jboss.maven.plugins.qstools.config.Rules;
-
-import com.puppycrawl.tools.checkstyle.api.AuditEvent;
 
 public abstract class AbstractCheckstyleChecker implements QSChecker {
 
     @Requirement
     private ConfigurationProvider configurationProvider;
 
+    @Requirement
+    private Context context;
+
+    @Requirement
+    private CompositeCheckstyleExecutor compositeCheckstyleExecutor;
+
     private int violationsQtd;
 
     private String checkerMessage;
@@ -64,38 +67,20 @@ public abstract class AbstractCheckstyleChecker implements QSChecker {
         violationsQtd = 0;
     }
 
-    @Requirement(role = CheckstyleExecutor.class)
-    private DefaultCheckstyleExecutor checkstyleExecutor;
-
     @Override
     public Map<String, List<Violation>> check(MavenProject project, MavenSession mavenSession, List<MavenProject> reactorProjects, Log log) throws QSToolsException {
         Map<String, List<Violation>> results = new TreeMap<String, List<Violation>>();
         if (configurationProvider.getQuickstartsRules(project.getGroupId()).isCheckerIgnored(this.getClass())) {
             checkerMessage = "This checker is ignored for this groupId in config file.";
         } else {
-            CheckstyleExecutorRequest executorRequest = new CheckstyleExecutorRequest();
-            Rules rules = configurationProvider.getQuickstartsRules(project.getGroupId());
             try {
-                executorRequest
-                    .setReactorProjects(reactorProjects)
-                    .setSourceDirectory(project.getBasedir())
-                    .setTestSourceDirectory(project.getBasedir())
-                    .setFailsOnError(false)
-                    .setProject(project)
-                    .setConfigLocation(getCheckstyleConfig())
-                    .setLog(log)
-                    .setEncoding("UTF-8")
-                    .setHeaderLocation(rules.getHeaderLocation())
-                    .setIncludes(getIncludes())
-                    .setExcludes(rules.getExcludes() + ", " + rules.getCheckerSpecificExcludes(this));
-                CheckstyleResults checkstyleResults = checkstyleExecutor.executeCheckstyle(executorRequest);
-                Map<String, List<AuditEvent>> files = checkstyleResults.getFiles();
+                Map<String, List<CachedEvent>> files = compositeCheckstyleExecutor.getEvents(this, project, log, isCompositeMode());
                 for (String file : files.keySet()) {
-                    List<AuditEvent> events = files.get(file);
+                    List<CachedEvent> events = files.get(file);
                     // If file has events/violations
                     if (events.size() > 0) {
                         List<Violation> violations = new ArrayList<Violation>();
-                        for (AuditEvent event : events) {
+                        for (CachedEvent event : events) {
                             // Add each checktyle AuditEvent as a new Violation
                             violations.add(new Violation(this.getClass(), event.getLine(), event.getMessage()));
                             violationsQtd++;
@@ -113,10 +98,28 @@ public abstract class AbstractCheckstyleChecker implements QSChecker {
         return results;
     }
 
+    /**
+     * @return if all Checkstyle checkers should run on a single pass (the default)
+     */
+    private boolean isCompositeMode() {
+        try {
+            return !context.contains(Constants.CHECKSTYLE_COMPOSITE_CONTEXT) || Boolean.TRUE.equals(context.get(Constants.CHECKSTYLE_COMPOSITE_CONTEXT));
+        } catch (ContextException e) {
+            return true;
+        }
+    }
+
     abstract String getIncludes();
 
     abstract String getCheckstyleConfig();
 
+    /**
+     * @return the location of the Checkstyle configuration used by this checker
+     */
+    public String getCheckstyleConfigLocation() {
+        return getCheckstyleConfig();
+    }
+
     @Override
     public String getCheckerMessage() {
         return checkerMessage;
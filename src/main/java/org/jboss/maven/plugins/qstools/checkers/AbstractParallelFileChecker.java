@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.checkers;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.jboss.maven.plugins.qstools.QSToolsException;
+import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
+import org.jboss.maven.plugins.qstools.config.Rules;
+
+/**
+ * Base of the checkers that check each file of the project on its own. The files are checked in parallel.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public abstract class AbstractParallelFileChecker implements QSChecker {
+
+    private static final int MAX_THREADS = 8;
+
+    @Requirement
+    private ConfigurationProvider configurationProvider;
+
+    private int violationsQtd;
+
+    private String checkerMessage;
+
+    @Override
+    public Map<String, List<Violation>> check(MavenProject project, MavenSession mavenSession, List<MavenProject> reactorProjects, Log log)
+        throws QSToolsException {
+        Map<String, List<Violation>> results = new TreeMap<String, List<Violation>>();
+        Rules rules = configurationProvider.getQuickstartsRules(project.getGroupId());
+        if (rules.isCheckerIgnored(this.getClass())) {
+            checkerMessage = "This checker is ignored for this groupId in config file.";
+        } else {
+            try {
+                final FileCheck fileCheck = createFileCheck(project, rules);
+                List<File> files = FileUtils.getFiles(project.getBasedir(), getIncludes(), rules.getExcludes() + ", " + rules.getCheckerSpecificExcludes(this));
+                Map<String, Future<List<Violation>>> futures = new LinkedHashMap<String, Future<List<Violation>>>();
+                ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_THREADS, files.size())));
+                try {
+                    for (final File file : files) {
+                        futures.put(getRelativePath(project.getBasedir(), file), executor.submit(new Callable<List<Violation>>() {
+
+                            @Override
+                            public List<Violation> call() throws Exception {
+                                try {
+                                    return fileCheck.check(file);
+                                } catch (FileNotFoundException e) {
+                                    // Reported on the file, as Checkstyle did, so the other files are still checked
+                                    return Collections.singletonList(new Violation(AbstractParallelFileChecker.this.getClass(), 0, "File not found!"));
+                                } catch (IOException e) {
+                                    return Collections.singletonList(new Violation(AbstractParallelFileChecker.this.getClass(), 0, "Got an exception - " + e.getMessage()));
+                                }
+                            }
+                        }));
+                    }
+                    for (Map.Entry<String, Future<List<Violation>>> future : futures.entrySet()) {
+                        List<Violation> violations = future.getValue().get();
+                        if (!violations.isEmpty()) {
+                            results.put(future.getKey(), violations);
+                            violationsQtd += violations.size();
+                        }
+                    }
+                } finally {
+                    executor.shutdownNow();
+                }
+            } catch (ExecutionException e) {
+                throw new QSToolsException(e.getCause());
+            } catch (Exception e) {
+                throw new QSToolsException(e);
+            }
+        }
+        if (getCheckerMessage() != null) {
+            log.info("--> Checker Message: " + getCheckerMessage());
+        }
+        return results;
+    }
+
+    /**
+     * The path relative to the project, with '/' as separator, as used by the Checkstyle checkers
+     */
+    private String getRelativePath(File basedir, File file) {
+        String base = basedir.getAbsolutePath();
+        String path = file.getAbsolutePath();
+        return (path.startsWith(base + File.separator) ? path.substring(base.length() + 1) : path).replace('\\', '/');
+    }
+
+    /**
+     * @return the files to scan
+     */
+    abstract String getIncludes();
+
+    /**
+     * @param project the project being checked
+     * @param rules the rules of the project
+     *
+     * @return the check of each file. It is called from several threads.
+     *
+     * @throws Exception if the check can't be prepared
+     */
+    abstract FileCheck createFileCheck(MavenProject project, Rules rules) throws Exception;
+
+    @Override
+    public int getViolatonsQtd() {
+        return violationsQtd;
+    }
+
+    @Override
+    public void resetViolationsQtd() {
+        violationsQtd = 0;
+    }
+
+    @Override
+    public String getCheckerMessage() {
+        return checkerMessage;
+    }
+
+    /**
+     * The check of one file
+     */
+    interface FileCheck {
+
+        /**
+         * @param file the file to check
+         *
+         * @return the violations of the file
+         *
+         * @throws Exception if the file can't be checked
+         */
+        List<Violation> check(File file) throws Exception;
+    }
+
+}
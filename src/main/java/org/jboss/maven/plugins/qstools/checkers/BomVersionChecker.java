@@ -18,20 +18,15 @@ package org.jboss.maven.plugins.qstools.checkers;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
-
-import javax.xml.xpath.XPathConstants;
 
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
 import org.jboss.jdf.stacks.model.Bom;
-import org.jboss.jdf.stacks.model.Stacks;
-import org.jboss.maven.plugins.qstools.Constants;
+import org.jboss.maven.plugins.qstools.config.StacksIndex;
 import org.jboss.maven.plugins.qstools.maven.MavenDependency;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomArtifact;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * @author Rafael Benevides
@@ -40,6 +35,9 @@ import org.w3c.dom.NodeList;
 @Component(role = QSChecker.class, hint = "bomVersionChecker")
 public class BomVersionChecker extends AbstractBaseCheckerAdapter {
 
+    @Requirement
+    private StacksIndex stacksIndex;
+
     /*
      * (non-Javadoc)
      * 
@@ -48,21 +46,13 @@ public class BomVersionChecker extends AbstractBaseCheckerAdapter {
      */
     @Override
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
-        Properties expectedBomVersions = getConfigurationProvider().getQuickstartsRules(project.getGroupId()).getExpectedBomVersion();
-        NodeList dependencies = (NodeList) getxPath().evaluate("/project/dependencyManagement/dependencies/dependency", doc, XPathConstants.NODESET);
+        Map<String, String> expectedBomVersions = getConfigurationProvider().getQuickstartsRules(project.getGroupId()).getExpectedBomVersion();
         // Iterate over all Declared Managed Dependencies
-        for (int x = 0; x < dependencies.getLength(); x++) {
-            Node dependency = dependencies.item(x);
-            MavenDependency mavenDependency = getDependencyProvider().getDependencyFromNode(project, dependency);
+        for (PomArtifact dependency : getPomModelIndex(project).getManagedDependencies()) {
+            MavenDependency mavenDependency = dependency.getArtifact();
             // use stacks to find if the project is using a jboss-developer bom
-            Bom bomUsed = null;
-            Stacks stacks = (Stacks) getContext().get(Constants.STACKS_CONTEXT);
-            for (Bom bom : stacks.getAvailableBoms()) {
-                if (bom.getGroupId().equals(mavenDependency.getGroupId()) && bom.getArtifactId().equals(mavenDependency.getArtifactId())) {
-                    bomUsed = bom;
-                }
-            }
-            int lineNumber = XMLUtil.getLineNumberFromNode(dependency);
+            Bom bomUsed = stacksIndex.getBom(mavenDependency.getGroupId(), mavenDependency.getArtifactId());
+            int lineNumber = dependency.getLineNumber();
             if (bomUsed == null // No JDF Bom used
                 && !mavenDependency.getGroupId().startsWith("org.jboss") // Escape jboss boms
                 && !mavenDependency.getGroupId().startsWith(project.getGroupId()) // Escape projects with same groupId (subprojects)
@@ -71,7 +61,7 @@ public class BomVersionChecker extends AbstractBaseCheckerAdapter {
             ) {
                 addViolation(project.getFile(), results, lineNumber, mavenDependency + " isn't a JBoss Developer BOM");
             } else if (bomUsed != null) {
-                String expectedBomVersion = expectedBomVersions.getProperty(bomUsed.getGroupId());
+                String expectedBomVersion = expectedBomVersions.get(bomUsed.getGroupId());
                 if (expectedBomVersion != null && !mavenDependency.getInterpoledVersion().equals(expectedBomVersion)) {
                     String violationMsg = String.format("BOM %s isn't using the expected version %s", mavenDependency, expectedBomVersion);
                     addViolation(project.getFile(), results, lineNumber, violationMsg);
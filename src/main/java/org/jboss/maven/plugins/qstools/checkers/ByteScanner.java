@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.checkers;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Scans the raw bytes of UTF-8 text files for tabs and non US-ASCII characters.
+ *
+ * Each file is read once into a buffer, without splitting it in lines. Only the lines with non US-ASCII bytes are
+ * decoded, with the same replacement of malformed bytes as Checkstyle. Lines end on \n, \r\n or \r, as on Checkstyle.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public class ByteScanner {
+
+    /**
+     * Files with a NUL byte on their beginning are binary. The same heuristic is used by git.
+     */
+    private static final int SNIFF_LENGTH = 8000;
+
+    private ByteScanner() {
+    }
+
+    /**
+     * @param file the file to scan
+     * @param findTabs if the lines with tabs should be found
+     * @param findNonAscii if the non US-ASCII characters should be found
+     *
+     * @return the lines found on the file
+     *
+     * @throws IOException if the file can't be read
+     */
+    public static ScanResult scan(File file, boolean findTabs, boolean findNonAscii) throws IOException {
+        byte[] buffer = read(file);
+        int length = buffer.length;
+        if (length == 0) {
+            return ScanResult.EMPTY;
+        }
+        for (int i = 0, sniff = Math.min(length, SNIFF_LENGTH); i < sniff; i++) {
+            if (buffer[i] == 0) {
+                return ScanResult.BINARY;
+            }
+        }
+        List<Integer> tabLines = new ArrayList<Integer>();
+        List<Integer> nonAsciiLines = new ArrayList<Integer>();
+        int line = 1;
+        int lastTabLine = 0;
+        for (int i = 0; i < length; i++) {
+            byte b = buffer[i];
+            if (b == '\n') {
+                line++;
+            } else if (b == '\r') {
+                if (i + 1 < length && buffer[i + 1] == '\n') {
+                    i++;
+                }
+                line++;
+            } else if (b == '\t') {
+                if (findTabs && lastTabLine != line) {
+                    tabLines.add(line);
+                    lastTabLine = line;
+                }
+            } else if (b < 0 && findNonAscii) {
+                // Decode the rest of the line, so each character is reported once. Malformed bytes (ex: Latin-1)
+                // are reported as they are replaced by the UTF-8 decoder. A line break is never part of a sequence.
+                int end = i;
+                while (end < length && buffer[end] != '\n' && buffer[end] != '\r') {
+                    end++;
+                }
+                String text = new String(buffer, i, end - i, StandardCharsets.UTF_8);
+                if (findTabs && lastTabLine != line && text.indexOf('\t') >= 0) {
+                    tabLines.add(line);
+                    lastTabLine = line;
+                }
+                for (int x = 0; x < text.length(); x = text.offsetByCodePoints(x, 1)) {
+                    if (text.codePointAt(x) > 0x7F) {
+                        nonAsciiLines.add(line);
+                    }
+                }
+                i = end - 1;
+            }
+        }
+        return new ScanResult(false, tabLines, nonAsciiLines);
+    }
+
+    private static byte[] read(File file) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            long size = randomAccessFile.length();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("The file " + file + " is too big to be scanned");
+            }
+            byte[] buffer = new byte[(int) size];
+            randomAccessFile.readFully(buffer);
+            return buffer;
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * The lines found on a file
+     */
+    public static class ScanResult {
+
+        private static final ScanResult EMPTY = new ScanResult(false, Collections.<Integer> emptyList(), Collections.<Integer> emptyList());
+
+        private static final ScanResult BINARY = new ScanResult(true, Collections.<Integer> emptyList(), Collections.<Integer> emptyList());
+
+        private final boolean binary;
+
+        private final List<Integer> tabLines;
+
+        private final List<Integer> nonAsciiLines;
+
+        private ScanResult(boolean binary, List<Integer> tabLines, List<Integer> nonAsciiLines) {
+            this.binary = binary;
+            this.tabLines = tabLines;
+            this.nonAsciiLines = nonAsciiLines;
+        }
+
+        /**
+         * @return if the file was skipped because it is binary
+         */
+        public boolean isBinary() {
+            return binary;
+        }
+
+        /**
+         * @return the lines with tabs, each one once
+         */
+        public List<Integer> getTabLines() {
+            return tabLines;
+        }
+
+        /**
+         * @return the line of each non US-ASCII character
+         */
+        public List<Integer> getNonAsciiLines() {
+            return nonAsciiLines;
+        }
+    }
+
+}
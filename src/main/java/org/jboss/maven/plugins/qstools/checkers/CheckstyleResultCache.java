@@ -0,0 +1,242 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.checkers;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checkstyle results of each file of a project, kept between runs.
+ *
+ * The results of a file are reused while its content hash and the fingerprint of the checker (its configuration, the
+ * header file and the excludes) don't change. The cache is rewritten after each run without the files that were
+ * removed from the project.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public class CheckstyleResultCache {
+
+    /**
+     * Changes when the file format or the way the results are produced changes
+     */
+    private static final int VERSION = 1;
+
+    private final File file;
+
+    /**
+     * The fingerprint of each checker when the results were stored
+     */
+    private final Map<String, String> fingerprints = new HashMap<String, String>();
+
+    private final Map<String, FileResults> files = new HashMap<String, FileResults>();
+
+    private CheckstyleResultCache(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Read the cache file. A missing, outdated or corrupted file gives an empty cache.
+     *
+     * @param file the cache file
+     *
+     * @return the cache
+     */
+    public static CheckstyleResultCache load(File file) {
+        CheckstyleResultCache cache = new CheckstyleResultCache(file);
+        if (!file.exists()) {
+            return cache;
+        }
+        try {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            try {
+                if (in.readInt() != VERSION) {
+                    return cache;
+                }
+                for (int c = in.readInt(); c > 0; c--) {
+                    cache.fingerprints.put(in.readUTF(), in.readUTF());
+                }
+                for (int f = in.readInt(); f > 0; f--) {
+                    String path = in.readUTF();
+                    FileResults results = new FileResults(in.readUTF());
+                    for (int c = in.readInt(); c > 0; c--) {
+                        String checker = in.readUTF();
+                        List<CachedEvent> events = new ArrayList<CachedEvent>();
+                        for (int e = in.readInt(); e > 0; e--) {
+                            events.add(new CachedEvent(in.readInt(), in.readUTF()));
+                        }
+                        results.events.put(checker, events);
+                    }
+                    cache.files.put(path, results);
+                }
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            cache.fingerprints.clear();
+            cache.files.clear();
+        }
+        return cache;
+    }
+
+    /**
+     * @param path the file path, relative to the project
+     * @param contentHash the hash of the current file content
+     * @param checker the checker id
+     * @param fingerprint the current fingerprint of the checker
+     *
+     * @return the cached events of the checker for the file or null if there are none for this content and fingerprint
+     */
+    public List<CachedEvent> get(String path, String contentHash, String checker, String fingerprint) {
+        FileResults results = files.get(path);
+        if (results == null || !results.contentHash.equals(contentHash) || !fingerprint.equals(fingerprints.get(checker))) {
+            return null;
+        }
+        return results.events.get(checker);
+    }
+
+    /**
+     * Store the events of a checker for a file
+     *
+     * @param path the file path, relative to the project
+     * @param contentHash the hash of the checked file content
+     * @param checker the checker id
+     * @param events the events found by the checker. It may be empty.
+     */
+    public void put(String path, String contentHash, String checker, List<CachedEvent> events) {
+        FileResults results = files.get(path);
+        if (results == null || !results.contentHash.equals(contentHash)) {
+            results = new FileResults(contentHash);
+            files.put(path, results);
+        }
+        results.events.put(checker, Collections.unmodifiableList(new ArrayList<CachedEvent>(events)));
+    }
+
+    /**
+     * Write the cache. The fingerprints of the given checkers are updated, and files that don't exist anymore are
+     * removed.
+     *
+     * @param basedir the project directory
+     * @param checkerFingerprints the fingerprints of the checkers used on this run
+     *
+     * @throws IOException if the cache can't be written
+     */
+    public void store(File basedir, Map<String, String> checkerFingerprints) throws IOException {
+        fingerprints.putAll(checkerFingerprints);
+        file.getParentFile().mkdirs();
+        File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+        try {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+            try {
+                out.writeInt(VERSION);
+                out.writeInt(fingerprints.size());
+                for (Map.Entry<String, String> fingerprint : fingerprints.entrySet()) {
+                    out.writeUTF(fingerprint.getKey());
+                    out.writeUTF(fingerprint.getValue());
+                }
+                List<String> stored = new ArrayList<String>();
+                for (String path : files.keySet()) {
+                    if (new File(basedir, path).isFile()) {
+                        stored.add(path);
+                    }
+                }
+                out.writeInt(stored.size());
+                for (String path : stored) {
+                    FileResults results = files.get(path);
+                    out.writeUTF(path);
+                    out.writeUTF(results.contentHash);
+                    out.writeInt(results.events.size());
+                    for (Map.Entry<String, List<CachedEvent>> events : results.events.entrySet()) {
+                        out.writeUTF(events.getKey());
+                        out.writeInt(events.getValue().size());
+                        for (CachedEvent event : events.getValue()) {
+                            out.writeInt(event.getLine());
+                            out.writeUTF(event.getMessage());
+                        }
+                    }
+                }
+            } finally {
+                out.close();
+            }
+            try {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    /**
+     * The cached events of one file
+     */
+    private static class FileResults {
+
+        private final String contentHash;
+
+        private final Map<String, List<CachedEvent>> events = new HashMap<String, List<CachedEvent>>();
+
+        public FileResults(String contentHash) {
+            this.contentHash = contentHash;
+        }
+    }
+
+    /**
+     * The part of a Checkstyle event that is reported as a {@link Violation}
+     */
+    public static class CachedEvent {
+
+        private final int line;
+
+        private final String message;
+
+        public CachedEvent(int line, String message) {
+            this.line = line;
+            this.message = message;
+        }
+
+        /**
+         * @return the line of the event
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return the Checkstyle message
+         */
+        public String getMessage() {
+            return message;
+        }
+    }
+
+}
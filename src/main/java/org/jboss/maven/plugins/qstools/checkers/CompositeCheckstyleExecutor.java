@@ -0,0 +1,411 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.checkers;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.codehaus.plexus.PlexusContainer;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.jboss.maven.plugins.qstools.checkers.CheckstyleResultCache.CachedEvent;
+import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
+import org.jboss.maven.plugins.qstools.config.Resources;
+import org.jboss.maven.plugins.qstools.config.Rules;
+import org.jboss.maven.plugins.qstools.xml.XMLParserPool;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.puppycrawl.tools.checkstyle.Checker;
+import com.puppycrawl.tools.checkstyle.ConfigurationLoader;
+import com.puppycrawl.tools.checkstyle.DefaultConfiguration;
+import com.puppycrawl.tools.checkstyle.PropertiesExpander;
+import com.puppycrawl.tools.checkstyle.api.AuditEvent;
+import com.puppycrawl.tools.checkstyle.api.AuditListener;
+import com.puppycrawl.tools.checkstyle.api.Configuration;
+import com.puppycrawl.tools.checkstyle.api.SeverityLevel;
+
+/**
+ * Run all {@link AbstractCheckstyleChecker}s in a single Checkstyle pass.
+ *
+ * The modules of each checker configuration are merged into one composite configuration, with the TreeWalker checks
+ * under a single TreeWalker, so each file is read and parsed only once. Every module gets the checker name as its id,
+ * and the {@link AuditEvent}s are routed back to the checker that owns the module.
+ *
+ * The results of each file are kept on a {@link CheckstyleResultCache}, and only the files that changed (or whose
+ * checkers changed) are handed to Checkstyle.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = CompositeCheckstyleExecutor.class)
+public class CompositeCheckstyleExecutor {
+
+    private static final String COMPOSITE_CONFIG = "qstools" + File.separator + "checkstyle-composite.xml";
+
+    private static final String RESULT_CACHE = "qstools" + File.separator + "checkstyle-results.cache";
+
+    private static final String TREE_WALKER = "TreeWalker";
+
+    @Requirement
+    private PlexusContainer container;
+
+    @Requirement
+    private ConfigurationProvider configurationProvider;
+
+    @Requirement
+    private Resources resources;
+
+    private MavenProject lastProject;
+
+    /**
+     * Results of the last pass that weren't handed to its checker yet
+     */
+    private Map<Class<?>, Map<String, List<CachedEvent>>> pendingResults = new HashMap<Class<?>, Map<String, List<CachedEvent>>>();
+
+    /**
+     * Return the Checkstyle events of a checker. On composite mode the pass runs when the first checker asks for its
+     * events, and the following checkers receive the events already collected.
+     *
+     * @param checker the checker
+     * @param project the project being checked
+     * @param log the Maven log
+     * @param composite if all Checkstyle checkers should run on a single pass
+     *
+     * @return the events of the checker by file
+     *
+     * @throws Exception if Checkstyle fails
+     */
+    public synchronized Map<String, List<CachedEvent>> getEvents(AbstractCheckstyleChecker checker, MavenProject project, Log log,
+        boolean composite) throws Exception {
+        Map<String, List<CachedEvent>> events;
+        if (composite) {
+            events = project == lastProject ? pendingResults.remove(checker.getClass()) : null;
+            if (events == null) {
+                Rules rules = configurationProvider.getQuickstartsRules(project.getGroupId());
+                List<AbstractCheckstyleChecker> checkers = new ArrayList<AbstractCheckstyleChecker>();
+                for (QSChecker c : container.lookupList(QSChecker.class)) {
+                    if (c instanceof AbstractCheckstyleChecker && !rules.isCheckerIgnored(c.getClass())) {
+                        checkers.add((AbstractCheckstyleChecker) c);
+                    }
+                }
+                pendingResults = execute(project, log, checkers);
+                lastProject = project;
+                events = pendingResults.remove(checker.getClass());
+            }
+        } else {
+            events = execute(project, log, Collections.singletonList(checker)).get(checker.getClass());
+        }
+        return events == null ? new HashMap<String, List<CachedEvent>>() : events;
+    }
+
+    private Map<Class<?>, Map<String, List<CachedEvent>>> execute(MavenProject project, Log log, List<AbstractCheckstyleChecker> checkers)
+        throws Exception {
+        long start = System.currentTimeMillis();
+        Rules rules = configurationProvider.getQuickstartsRules(project.getGroupId());
+        Properties properties = new Properties();
+
+        DefaultConfiguration composite = new DefaultConfiguration("Checker");
+        DefaultConfiguration treeWalker = null;
+        Map<String, AbstractCheckstyleChecker> owners = new HashMap<String, AbstractCheckstyleChecker>();
+        Map<String, String> fingerprints = new HashMap<String, String>();
+        Map<AbstractCheckstyleChecker, Set<String>> checkerFiles = new HashMap<AbstractCheckstyleChecker, Set<String>>();
+        Set<String> allFiles = new TreeSet<String>();
+        for (AbstractCheckstyleChecker checker : checkers) {
+            String configLocation = resources.getExpirationalLocalLocation(checker.getCheckstyleConfigLocation());
+            if (!new File(configLocation).isFile()) {
+                // It couldn't be downloaded and isn't cached
+                throw new FileNotFoundException("The Checkstyle configuration " + configLocation + " isn't available");
+            }
+            Configuration config = ConfigurationLoader.loadConfiguration(configLocation, new PropertiesExpander(properties));
+            String id = checker.getClass().getSimpleName();
+            owners.put(id, checker);
+            copyAttributes(config, composite);
+            for (Configuration module : config.getChildren()) {
+                if (TREE_WALKER.equals(module.getName())) {
+                    if (treeWalker == null) {
+                        treeWalker = new DefaultConfiguration(TREE_WALKER);
+                        composite.addChild(treeWalker);
+                    }
+                    copyAttributes(module, treeWalker);
+                    for (Configuration check : module.getChildren()) {
+                        treeWalker.addChild(copy(check, id));
+                    }
+                } else {
+                    composite.addChild(copy(module, id));
+                }
+            }
+            // The files of each checker, so events of files that the checker doesn't include are discarded
+            String excludes = rules.getExcludes() + ", " + rules.getCheckerSpecificExcludes(checker);
+            Set<String> files = new HashSet<String>();
+            for (File file : FileUtils.getFiles(project.getBasedir(), checker.getIncludes(), excludes)) {
+                files.add(file.getAbsolutePath());
+            }
+            checkerFiles.put(checker, files);
+            allFiles.addAll(files);
+            // Anything that changes the events of the checker
+            Hasher fingerprint = Hashing.sha1().newHasher()
+                .putBytes(Files.readAllBytes(new File(configLocation).toPath()))
+                .putString(checker.getIncludes() + "|" + excludes, StandardCharsets.UTF_8);
+            fingerprints.put(id, fingerprint.hash().toString());
+        }
+        if (!Arrays.asList(composite.getAttributeNames()).contains("charset")) {
+            composite.addAttribute("charset", "UTF-8");
+        }
+        writeConfiguration(composite, new File(project.getBuild().getDirectory(), COMPOSITE_CONFIG));
+
+        Map<Class<?>, Map<String, List<CachedEvent>>> results = new HashMap<Class<?>, Map<String, List<CachedEvent>>>();
+        for (AbstractCheckstyleChecker checker : checkers) {
+            results.put(checker.getClass(), new TreeMap<String, List<CachedEvent>>());
+        }
+
+        // Use the cached results of the files that didn't change
+        CheckstyleResultCache cache = CheckstyleResultCache.load(new File(project.getBuild().getDirectory(), RESULT_CACHE));
+        Map<String, String> contentHashes = new HashMap<String, String>();
+        List<File> filesToCheck = new ArrayList<File>();
+        for (String file : allFiles) {
+            String path = getRelativePath(project.getBasedir(), file);
+            String contentHash = Hashing.sha1().hashBytes(Files.readAllBytes(new File(file).toPath())).toString();
+            contentHashes.put(file, contentHash);
+            Map<AbstractCheckstyleChecker, List<CachedEvent>> cached = new HashMap<AbstractCheckstyleChecker, List<CachedEvent>>();
+            for (AbstractCheckstyleChecker checker : checkers) {
+                if (checkerFiles.get(checker).contains(file)) {
+                    String id = checker.getClass().getSimpleName();
+                    List<CachedEvent> events = cache.get(path, contentHash, id, fingerprints.get(id));
+                    if (events == null) {
+                        filesToCheck.add(new File(file));
+                        cached = null;
+                        break;
+                    }
+                    cached.put(checker, events);
+                }
+            }
+            if (cached != null) {
+                for (Map.Entry<AbstractCheckstyleChecker, List<CachedEvent>> events : cached.entrySet()) {
+                    addEvents(results.get(events.getKey().getClass()), path, events.getValue());
+                }
+            }
+        }
+
+        if (!filesToCheck.isEmpty()) {
+            EventCollector collector = new EventCollector();
+            Checker checker = new Checker();
+            try {
+                checker.setModuleClassLoader(Checker.class.getClassLoader());
+                checker.configure(composite);
+                checker.addListener(collector);
+                checker.process(filesToCheck);
+            } finally {
+                checker.destroy();
+            }
+            // Route each event to the checker that owns the module. Events without module (exceptions) go to all checkers of the file
+            for (File file : filesToCheck) {
+                String path = getRelativePath(project.getBasedir(), file.getAbsolutePath());
+                List<AuditEvent> fileEvents = collector.events.get(file.getAbsolutePath());
+                for (AbstractCheckstyleChecker c : checkers) {
+                    if (!checkerFiles.get(c).contains(file.getAbsolutePath())) {
+                        continue;
+                    }
+                    List<CachedEvent> events = new ArrayList<CachedEvent>();
+                    if (fileEvents != null) {
+                        for (AuditEvent event : fileEvents) {
+                            AbstractCheckstyleChecker owner = event.getModuleId() == null ? null : owners.get(event.getModuleId());
+                            if (owner == null || owner == c) {
+                                events.add(new CachedEvent(event.getLine(), event.getMessage()));
+                            }
+                        }
+                    }
+                    addEvents(results.get(c.getClass()), path, events);
+                    if (!collector.failedFiles.contains(file.getAbsolutePath())) {
+                        cache.put(path, contentHashes.get(file.getAbsolutePath()), c.getClass().getSimpleName(), events);
+                    }
+                }
+            }
+        }
+        try {
+            cache.store(project.getBasedir(), fingerprints);
+        } catch (IOException e) {
+            log.warn("Can't store the Checkstyle results on " + RESULT_CACHE + ": " + e.getMessage());
+        }
+        log.debug("Checkstyle pass of " + owners.keySet() + " on " + allFiles.size() + " files (" + filesToCheck.size() + " not cached) done in "
+            + (System.currentTimeMillis() - start) + " ms");
+        return results;
+    }
+
+    private void addEvents(Map<String, List<CachedEvent>> checkerEvents, String path, List<CachedEvent> events) {
+        if (!events.isEmpty()) {
+            checkerEvents.put(path, events);
+        }
+    }
+
+    /**
+     * The path relative to the project, with '/' as separator, as used on the reports
+     */
+    private String getRelativePath(File basedir, String file) {
+        String base = basedir.getAbsolutePath();
+        String path = file.startsWith(base + File.separator) ? file.substring(base.length() + 1) : file;
+        return path.replace('\\', '/');
+    }
+
+    /**
+     * Copy a module configuration, setting its id
+     */
+    private DefaultConfiguration copy(Configuration module, String id) throws Exception {
+        DefaultConfiguration copy = new DefaultConfiguration(module.getName());
+        copyAttributes(module, copy);
+        // Filters don't have an id
+        if (id != null && !module.getName().endsWith("Filter")) {
+            copy.addAttribute("id", id);
+        }
+        for (Map.Entry<String, String> message : module.getMessages().entrySet()) {
+            copy.addMessage(message.getKey(), message.getValue());
+        }
+        for (Configuration child : module.getChildren()) {
+            copy.addChild(copy(child, null));
+        }
+        return copy;
+    }
+
+    /**
+     * Copy the attributes that the target doesn't have yet
+     */
+    private void copyAttributes(Configuration source, DefaultConfiguration target) throws Exception {
+        Set<String> existing = new HashSet<String>();
+        for (String name : target.getAttributeNames()) {
+            existing.add(name);
+        }
+        for (String name : source.getAttributeNames()) {
+            if (!"id".equals(name) && !existing.contains(name)) {
+                target.addAttribute(name, source.getAttribute(name));
+            }
+        }
+    }
+
+    private void writeConfiguration(Configuration configuration, File file) throws Exception {
+        Document doc = XMLParserPool.getDocumentBuilder().newDocument();
+        doc.appendChild(toElement(doc, configuration));
+        file.getParentFile().mkdirs();
+        Transformer t = XMLParserPool.getTransformer();
+        t.setOutputProperty(OutputKeys.METHOD, "xml");
+        t.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
+        t.setOutputProperty(OutputKeys.INDENT, "yes");
+        t.setOutputProperty(OutputKeys.DOCTYPE_PUBLIC, "-//Puppy Crawl//DTD Check Configuration 1.3//EN");
+        t.setOutputProperty(OutputKeys.DOCTYPE_SYSTEM, "http://www.puppycrawl.com/dtds/configuration_1_3.dtd");
+        OutputStream os = new FileOutputStream(file);
+        try {
+            t.transform(new DOMSource(doc), new StreamResult(os));
+        } finally {
+            os.close();
+        }
+    }
+
+    private Element toElement(Document doc, Configuration configuration) throws Exception {
+        Element module = doc.createElement("module");
+        module.setAttribute("name", configuration.getName());
+        for (String name : configuration.getAttributeNames()) {
+            Element property = doc.createElement("property");
+            property.setAttribute("name", name);
+            property.setAttribute("value", configuration.getAttribute(name));
+            module.appendChild(property);
+        }
+        for (Map.Entry<String, String> message : configuration.getMessages().entrySet()) {
+            Element messageElement = doc.createElement("message");
+            messageElement.setAttribute("key", message.getKey());
+            messageElement.setAttribute("value", message.getValue());
+            module.appendChild(messageElement);
+        }
+        for (Configuration child : configuration.getChildren()) {
+            module.appendChild(toElement(doc, child));
+        }
+        return module;
+    }
+
+    /**
+     * Collect the Checkstyle events by file
+     */
+    private static class EventCollector implements AuditListener {
+
+        private final Map<String, List<AuditEvent>> events = new HashMap<String, List<AuditEvent>>();
+
+        /**
+         * Files with exceptions. Their results aren't cached
+         */
+        private final Set<String> failedFiles = new HashSet<String>();
+
+        @Override
+        public void addError(AuditEvent event) {
+            if (SeverityLevel.IGNORE.equals(event.getSeverityLevel())) {
+                return;
+            }
+            if (events.get(event.getFileName()) == null) {
+                events.put(event.getFileName(), new ArrayList<AuditEvent>());
+            }
+            events.get(event.getFileName()).add(event);
+            if (event.getModuleId() == null) {
+                failedFiles.add(event.getFileName());
+            }
+        }
+
+        @Override
+        public void addException(AuditEvent event, Throwable throwable) {
+            failedFiles.add(event.getFileName());
+        }
+
+        @Override
+        public void auditStarted(AuditEvent event) {
+        }
+
+        @Override
+        public void auditFinished(AuditEvent event) {
+        }
+
+        @Override
+        public void fileStarted(AuditEvent event) {
+        }
+
+        @Override
+        public void fileFinished(AuditEvent event) {
+        }
+    }
+
+}
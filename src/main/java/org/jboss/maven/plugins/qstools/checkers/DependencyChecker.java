@@ -16,14 +16,32 @@
  */
 package org.jboss.maven.plugins.qstools.checkers;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
-
-import javax.xml.xpath.XPathConstants;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.apache.maven.artifact.Artifact;
 import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
@@ -35,13 +53,15 @@ import org.apache.maven.project.MavenProject;
 import org.apache.maven.repository.RepositorySystem;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
-import org.jboss.jdf.stacks.client.StacksClient;
 import org.jboss.jdf.stacks.model.Bom;
+import org.jboss.maven.plugins.qstools.Utils;
+import org.jboss.maven.plugins.qstools.config.DiskCache;
+import org.jboss.maven.plugins.qstools.config.StacksIndex;
 import org.jboss.maven.plugins.qstools.maven.MavenDependency;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomArtifact;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+
+import com.google.common.hash.Hashing;
 
 /**
  * @author Rafael Benevides
@@ -50,6 +70,10 @@ import org.w3c.dom.NodeList;
 @Component(role = QSChecker.class, hint = "dependencyChecker")
 public class DependencyChecker extends AbstractBaseCheckerAdapter {
 
+    private static final int MAX_THREADS = 8;
+
+    private static final String INDEX_KEY_PREFIX = "qstools:managed-dependencies:";
+
     /**
      * List of all managed Dependencies and what BOMs it is present
      */
@@ -58,15 +82,166 @@ public class DependencyChecker extends AbstractBaseCheckerAdapter {
     @Requirement
     private RepositorySystem repositorySystem;
 
+    @Requirement
+    private StacksIndex stacksIndex;
+
+    @Requirement
+    private DiskCache diskCache;
+
     /**
-     * Parse all BOMs to find all dependencies that it manages
+     * Parse all BOMs to find all dependencies that it manages.
+     * 
+     * The result is stored on the {@link DiskCache}, keyed by the BOMs GAVs and the Stacks fingerprint, so the BOMs are only
+     * parsed again when Stacks changes. An index with SNAPSHOT BOMs isn't stored, because they can be deployed again.
      */
     private void setupManagedDependencies(MavenProject project) throws Exception {
-        managedDependencies = new HashMap<MavenGA, Set<Bom>>();
-        StacksClient sc = new StacksClient();
-        List<Bom> boms = sc.getStacks().getAvailableBoms();
+        long start = System.currentTimeMillis();
+        // Stacks already configured (URL, offline) by the Mojo
+        List<Bom> boms = stacksIndex.getAvailableBoms();
+        String indexKey = INDEX_KEY_PREFIX + getIndexKey(boms);
+        File indexFile = diskCache.getFile(indexKey);
+        Map<MavenGA, Set<Bom>> index = hasSnapshot(boms) ? null : loadIndex(indexFile, boms);
+        if (index != null) {
+            diskCache.accessed(indexFile);
+            getLog().debug("Managed dependencies index loaded from " + indexFile + " in " + (System.currentTimeMillis() - start) + " ms");
+        } else {
+            index = new HashMap<MavenGA, Set<Bom>>();
+            boolean persistable = readBOMs(project, boms, index);
+            // Don't keep an index without the BOMs that couldn't be resolved (they may be available on the next run) or
+            // with SNAPSHOT BOMs
+            if (persistable) {
+                storeIndex(indexFile, indexKey, index);
+            }
+            getLog().debug("Managed dependencies index built in " + (System.currentTimeMillis() - start) + " ms");
+        }
+        managedDependencies = index;
+    }
+
+    private boolean hasSnapshot(List<Bom> boms) {
         for (Bom bom : boms) {
-            readBOMArtifact(project, bom, bom.getGroupId(), bom.getArtifactId(), bom.getRecommendedVersion());
+            if (isSnapshot(bom.getRecommendedVersion())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isSnapshot(String version) {
+        return version != null && version.endsWith(Artifact.SNAPSHOT_VERSION);
+    }
+
+    private String getIndexKey(List<Bom> boms) throws Exception {
+        List<String> gavs = new ArrayList<String>();
+        for (Bom bom : boms) {
+            gavs.add(getBomKey(bom));
+        }
+        Collections.sort(gavs);
+        return Hashing.sha1().hashString(gavs + "|" + stacksIndex.getFingerprint(), StandardCharsets.UTF_8).toString();
+    }
+
+    private String getBomKey(Bom bom) {
+        return bom.getGroupId() + ":" + bom.getArtifactId() + ":" + bom.getRecommendedVersion();
+    }
+
+    /**
+     * Resolve and parse all BOMs concurrently. Parents shared by several BOMs are resolved and parsed only once.
+     * 
+     * @return false if some BOM or parent couldn't be resolved or is a SNAPSHOT
+     */
+    private boolean readBOMs(final MavenProject project, List<Bom> boms, Map<MavenGA, Set<Bom>> index) throws Exception {
+        final ConcurrentMap<String, FutureTask<Model>> models = new ConcurrentHashMap<String, FutureTask<Model>>();
+        final AtomicBoolean persistable = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_THREADS, boms.size())));
+        try {
+            Map<Bom, Future<Set<MavenGA>>> futures = new LinkedHashMap<Bom, Future<Set<MavenGA>>>();
+            for (final Bom bom : boms) {
+                futures.put(bom, executor.submit(new Callable<Set<MavenGA>>() {
+
+                    @Override
+                    public Set<MavenGA> call() throws Exception {
+                        return readBOM(project, bom, models, persistable);
+                    }
+                }));
+            }
+            for (Map.Entry<Bom, Future<Set<MavenGA>>> entry : futures.entrySet()) {
+                // For each dependency add its bom
+                for (MavenGA mvnDependency : getResult(entry.getValue())) {
+                    if (index.get(mvnDependency) == null) {
+                        index.put(mvnDependency, new HashSet<Bom>());
+                    }
+                    index.get(mvnDependency).add(entry.getKey());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return persistable.get();
+    }
+
+    /**
+     * Parse the BOM and its parents to find all managed dependencies
+     * 
+     * @param mavenProject the project used to retrieve the remote artifact repositories
+     * @param bom the BOM model that originates the request
+     * @param models the models already resolved, by GAV
+     * @param persistable set to false if the BOM or some parent couldn't be resolved or is a SNAPSHOT
+     */
+    private Set<MavenGA> readBOM(MavenProject mavenProject, Bom bom, ConcurrentMap<String, FutureTask<Model>> models,
+        AtomicBoolean persistable) throws Exception {
+        Set<MavenGA> managed = new HashSet<MavenGA>();
+        String groupId = bom.getGroupId();
+        String artifactId = bom.getArtifactId();
+        String version = bom.getRecommendedVersion();
+        // parent search
+        while (groupId != null) {
+            Model model = getModel(mavenProject, groupId, artifactId, version, models);
+            if (model == null || isSnapshot(version)) {
+                persistable.set(false);
+            }
+            if (model == null) {
+                break;
+            }
+            if (model.getDependencyManagement() != null) {
+                for (Dependency dep : model.getDependencyManagement().getDependencies()) {
+                    managed.add(new MavenGA(dep.getGroupId(), dep.getArtifactId()));
+                }
+            }
+            Parent p = model.getParent();
+            groupId = p == null ? null : p.getGroupId();
+            artifactId = p == null ? null : p.getArtifactId();
+            version = p == null ? null : p.getVersion();
+        }
+        return managed;
+    }
+
+    /**
+     * Get a resolved model. If another thread is already resolving the same GAV, its result is used.
+     */
+    private Model getModel(final MavenProject mavenProject, final String groupId, final String artifactId, final String version,
+        ConcurrentMap<String, FutureTask<Model>> models) throws Exception {
+        FutureTask<Model> task = new FutureTask<Model>(new Callable<Model>() {
+
+            @Override
+            public Model call() throws Exception {
+                return readBOMArtifact(mavenProject, groupId, artifactId, version);
+            }
+        });
+        FutureTask<Model> existing = models.putIfAbsent(groupId + ":" + artifactId + ":" + version, task);
+        if (existing == null) {
+            task.run();
+            existing = task;
+        }
+        return getResult(existing);
+    }
+
+    private <T> T getResult(Future<T> future) throws Exception {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
         }
     }
 
@@ -74,54 +249,103 @@ public class DependencyChecker extends AbstractBaseCheckerAdapter {
      * Resolve Each Maven Artifact from BOM Information
      * 
      * @param mavenProject the project used to retrieve the remote artifact repositories
-     * @param bom the bom model that is being parsed
      * @param groupId
      * @param artifactId
      * @param version
+     * @return the parsed BOM or null if it wasn't found
      * @throws Exception
      */
-    private void readBOMArtifact(MavenProject mavenProject, Bom bom, String groupId, String artifactId, String version) throws Exception {
+    private Model readBOMArtifact(MavenProject mavenProject, String groupId, String artifactId, String version) throws Exception {
         Artifact pomArtifact = repositorySystem.createArtifact(groupId, artifactId, version, "", "pom");
         ArtifactResolutionRequest arr = new ArtifactResolutionRequest();
 
         arr.setArtifact(pomArtifact).setRemoteRepositories(mavenProject.getRemoteArtifactRepositories()).setLocalRepository(getMavenSession().getLocalRepository());
+        // Offline, only the BOMs on the local repository are used
+        arr.setOffline(Utils.isOffline(getContext()));
         repositorySystem.resolve(arr);
         // Given the resolved maven artifact for BOM, parse it.
-        readBOM(mavenProject, bom, pomArtifact);
+        if (pomArtifact.getFile().exists()) {
+            MavenXpp3Reader reader = new MavenXpp3Reader();
+            FileReader fileReader = new FileReader(pomArtifact.getFile());
+            try {
+                return reader.read(fileReader);
+            } finally {
+                fileReader.close();
+            }
+        } else {
+            String msg = String.format("BOM %s (from jboss-stacks) was not found. You may need to configure an EAP/WFK repository in your settings.xml.", pomArtifact);
+            getLog().debug(msg);
+            return null;
+        }
+    }
 
+    /**
+     * @return the stored index or null if it doesn't exist or it references an unknown BOM
+     */
+    private Map<MavenGA, Set<Bom>> loadIndex(File indexFile, List<Bom> boms) {
+        if (!indexFile.exists()) {
+            return null;
+        }
+        Map<String, Bom> bomsByKey = new HashMap<String, Bom>();
+        for (Bom bom : boms) {
+            bomsByKey.put(getBomKey(bom), bom);
+        }
+        Properties p = new Properties();
+        try {
+            InputStream is = new FileInputStream(indexFile);
+            try {
+                p.load(is);
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            getLog().debug("Ignoring unreadable managed dependencies index " + indexFile + ": " + e.getMessage());
+            return null;
+        }
+        Map<MavenGA, Set<Bom>> index = new HashMap<MavenGA, Set<Bom>>();
+        for (String ga : p.stringPropertyNames()) {
+            String[] gaSplited = ga.split(":", 2);
+            Set<Bom> gaBoms = new HashSet<Bom>();
+            for (String bomKey : p.getProperty(ga).split(",")) {
+                Bom bom = bomsByKey.get(bomKey);
+                if (bom == null || gaSplited.length != 2) {
+                    return null;
+                }
+                gaBoms.add(bom);
+            }
+            index.put(new MavenGA(gaSplited[0], gaSplited[1]), gaBoms);
+        }
+        return index;
     }
 
     /**
-     * 
-     * Parse the BOM file recursively to find all managed dependencies
-     * 
-     * @param mavenProject
-     * @param bom the BOM model that originates the request
-     * @param pomArtifact the maven artifact that represents the BOM
-     * @throws Exception
+     * Store the index on the {@link DiskCache}. Format: groupId:artifactId=bomGroupId:bomArtifactId:bomVersion,...
      */
-    private void readBOM(MavenProject mavenProject, Bom bom, Artifact pomArtifact) throws Exception {
-        if (pomArtifact.getFile().exists()) {
-            MavenXpp3Reader reader = new MavenXpp3Reader();
-            Model model = reader.read(new FileReader(pomArtifact.getFile()));
-            // recursive parent search
-            if (model.getParent() != null) {
-                Parent p = model.getParent();
-                readBOMArtifact(mavenProject, bom, p.getGroupId(), p.getArtifactId(), p.getVersion());
+    private void storeIndex(File indexFile, String indexKey, Map<MavenGA, Set<Bom>> index) {
+        Properties p = new Properties();
+        for (Map.Entry<MavenGA, Set<Bom>> entry : index.entrySet()) {
+            StringBuilder sb = new StringBuilder();
+            for (Bom bom : entry.getValue()) {
+                sb.append(sb.length() == 0 ? "" : ",").append(getBomKey(bom));
             }
-            if (model.getDependencyManagement() != null) {
-                for (Dependency dep : model.getDependencyManagement().getDependencies()) {
-                    // For each dependency add its bom
-                    MavenGA mvnDependency = new MavenGA(dep.getGroupId(), dep.getArtifactId());
-                    if (managedDependencies.get(mvnDependency) == null) {
-                        managedDependencies.put(mvnDependency, new HashSet<Bom>());
-                    }
-                    managedDependencies.get(mvnDependency).add(bom);
+            p.setProperty(entry.getKey().groupId + ":" + entry.getKey().artifactId, sb.toString());
+        }
+        try {
+            File tempFile = File.createTempFile(indexFile.getName(), ".tmp", indexFile.getParentFile());
+            try {
+                OutputStream os = new FileOutputStream(tempFile);
+                try {
+                    p.store(os, "QSTools managed dependencies index");
+                } finally {
+                    os.close();
                 }
+                diskCache.moveAtomically(tempFile, indexFile);
+            } finally {
+                tempFile.delete();
             }
-        } else {
-            String msg = String.format("BOM %s (from jboss-stacks) was not found. You may need to configure an EAP/WFK repository in your settings.xml.", pomArtifact);
-            getLog().debug(msg);
+            diskCache.stored(indexFile, indexKey);
+        } catch (IOException e) {
+            getLog().warn("Can't store the managed dependencies index on " + indexFile + ": " + e.getMessage());
         }
     }
 
@@ -146,11 +370,9 @@ public class DependencyChecker extends AbstractBaseCheckerAdapter {
         if (managedDependencies == null) {
             setupManagedDependencies(project);
         }
-        NodeList dependencies = (NodeList) getxPath().evaluate("/project/dependencies/dependency", doc, XPathConstants.NODESET);
-        for (int x = 0; x < dependencies.getLength(); x++) {
-            Node dependency = dependencies.item(x);
-            MavenDependency mavenDependency = getDependencyProvider().getDependencyFromNode(project, dependency);
-            int lineNumber = XMLUtil.getLineNumberFromNode(dependency);
+        for (PomArtifact dependency : getPomModelIndex(project).getDependencies()) {
+            MavenDependency mavenDependency = dependency.getArtifact();
+            int lineNumber = dependency.getLineNumber();
             MavenGA ga = new MavenGA(mavenDependency.getGroupId(), mavenDependency.getArtifactId());
             // IF declares a version
             if (mavenDependency.getDeclaredVersion() != null &&
@@ -21,15 +21,12 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
 import org.jboss.maven.plugins.qstools.maven.MavenDependency;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomArtifact;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * @author Rafael Benevides
@@ -58,11 +55,10 @@ public class DuplicateDependencyChecker extends AbstractBaseCheckerAdapter {
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
         // Check Managed Dependencies
         Set<MavenDependency> declaredManagedDependencies = new HashSet<MavenDependency>();
-        NodeList managedDependency = (NodeList) getxPath().evaluate("/project/dependencyManagement/dependencies/dependency", doc, XPathConstants.NODESET);
-        for (int x = 0; x < managedDependency.getLength(); x++) {
-            Node dependency = managedDependency.item(x);
-            MavenDependency mavenDependency = getDependencyProvider().getDependencyFromNode(project, dependency);
-            int lineNumber = XMLUtil.getLineNumberFromNode(dependency);
+        PomModelIndex pomModelIndex = getPomModelIndex(project);
+        for (PomArtifact dependency : pomModelIndex.getManagedDependencies()) {
+            MavenDependency mavenDependency = dependency.getArtifact();
+            int lineNumber = dependency.getLineNumber();
             if (!declaredManagedDependencies.add(mavenDependency)) { // return false if already exists
                 String msg = "Managed Dependency [%s] is declared more than once";
                 addViolation(project.getFile(), results, lineNumber, String.format(msg, mavenDependency.getArtifactId()));
@@ -70,11 +66,9 @@ public class DuplicateDependencyChecker extends AbstractBaseCheckerAdapter {
         }
         // Check Dependencies
         Set<MavenDependency> declaredDependencies = new HashSet<MavenDependency>();
-        NodeList dependencies = (NodeList) getxPath().evaluate("/project/dependencies/dependency", doc, XPathConstants.NODESET);
-        for (int x = 0; x < dependencies.getLength(); x++) {
-            Node dependency = dependencies.item(x);
-            MavenDependency mavenDependency = getDependencyProvider().getDependencyFromNode(project, dependency);
-            int lineNumber = XMLUtil.getLineNumberFromNode(dependency);
+        for (PomArtifact dependency : pomModelIndex.getDependencies()) {
+            MavenDependency mavenDependency = dependency.getArtifact();
+            int lineNumber = dependency.getLineNumber();
             if (!declaredDependencies.add(mavenDependency)) { // return false if already exists
                 String msg = "Dependency [%s] is declared more than once";
                 addViolation(project.getFile(), results, lineNumber, String.format(msg, mavenDependency.getArtifactId()));
@@ -21,14 +21,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * @author Rafael Benevides
@@ -55,12 +51,10 @@ public class DuplicatePropertiesChecker extends AbstractBaseCheckerAdapter {
      */
     @Override
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
-        NodeList properties = (NodeList) getxPath().evaluate("/project/properties/*", doc, XPathConstants.NODESET);
         Set<String> declaredProperties = new HashSet<String>();
-        for (int x = 0; x < properties.getLength(); x++) {
-            Node property = properties.item(x);
-            String propertyName = property.getNodeName();
-            int lineNumber = XMLUtil.getLineNumberFromNode(property);
+        for (PomElement property : getPomModelIndex(project).getProperties()) {
+            String propertyName = property.getName();
+            int lineNumber = property.getLineNumber();
             if (!declaredProperties.add(propertyName)) { // return false if already exists
                 String msg = "Property [%s] is declared more than once";
                 addViolation(project.getFile(), results, lineNumber, String.format(msg, propertyName));
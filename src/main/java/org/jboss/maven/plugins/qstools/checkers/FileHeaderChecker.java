@@ -16,10 +16,45 @@
  */
 package org.jboss.maven.plugins.qstools.checkers;
 
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileNotFoundException;
+import java.io.InputStreamReader;
+import java.io.LineNumberReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.jboss.maven.plugins.qstools.config.Resources;
+import org.jboss.maven.plugins.qstools.config.Rules;
 
+/**
+ * Verifies the header of the project files against the header file of the rules.
+ *
+ * The header file has one regular expression per line. It is compiled once into a {@link HeaderMatcher}, which gives the
+ * same results as the Checkstyle RegexpHeader check used before, reading only the beginning of each file.
+ *
+ * @author Rafael Benevides
+ *
+ */
 @Component(role = QSChecker.class, hint = "fileHeaderChecker")
-public class FileHeaderChecker extends AbstractCheckstyleChecker {
+public class FileHeaderChecker extends AbstractParallelFileChecker {
+
+    /**
+     * Header lines that may match any number of lines: the XML declaration, DOCTYPE and comment start lines
+     */
+    private static final int[] MULTI_LINES = { 1, 2, 3, 4, 5, 6, 7 };
+
+    @Requirement
+    private Resources resources;
+
+    private final Map<String, HeaderMatcher> headerMatchers = new ConcurrentHashMap<String, HeaderMatcher>();
 
     /*
      * (non-Javadoc)
@@ -33,12 +68,45 @@ public class FileHeaderChecker extends AbstractCheckstyleChecker {
 
     @Override
     String getIncludes() {
-        return "**/*.*";
+        return "**/*.xml, **/*.xsd, **/*.java, **/*.js, **/*.properties, **/*.html, **/*.xhtml, **/*.sql, **/*.css";
     }
 
     @Override
-    String getCheckstyleConfig() {
-        return "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/checkstyle-header.xml";
+    FileCheck createFileCheck(MavenProject project, Rules rules) throws Exception {
+        final HeaderMatcher headerMatcher = getHeaderMatcher(resources.getExpirationalLocalLocation(rules.getHeaderLocation()));
+        return new FileCheck() {
+
+            @Override
+            public List<Violation> check(File file) throws Exception {
+                Violation violation = headerMatcher.check(file);
+                return violation == null ? Collections.<Violation> emptyList() : Collections.singletonList(violation);
+            }
+        };
+    }
+
+    private HeaderMatcher getHeaderMatcher(String headerLocation) throws Exception {
+        if (!new File(headerLocation).isFile()) {
+            // It couldn't be downloaded and isn't cached
+            throw new FileNotFoundException("The header file " + headerLocation + " isn't available");
+        }
+        // The cached header file is replaced when it expires
+        String key = headerLocation + "@" + new File(headerLocation).lastModified();
+        HeaderMatcher headerMatcher = headerMatchers.get(key);
+        if (headerMatcher == null) {
+            List<String> headerLines = new ArrayList<String>();
+            LineNumberReader reader = new LineNumberReader(new InputStreamReader(new FileInputStream(headerLocation), StandardCharsets.UTF_8));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    headerLines.add(line);
+                }
+            } finally {
+                reader.close();
+            }
+            headerMatcher = new HeaderMatcher(getClass(), headerLines, MULTI_LINES);
+            headerMatchers.put(key, headerMatcher);
+        }
+        return headerMatcher;
     }
 
-}
\ No newline at end of file
+}
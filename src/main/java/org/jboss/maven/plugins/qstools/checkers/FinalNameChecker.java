@@ -19,13 +19,10 @@ package org.jboss.maven.plugins.qstools.checkers;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 
 /**
  * @author Rafael Benevides
@@ -55,10 +52,10 @@ public class FinalNameChecker extends AbstractBaseCheckerAdapter {
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
         String packaging = project.getPackaging();
         String expectedFinalName = getConfigurationProvider().getQuickstartsRules(project.getGroupId()).getFinalNamePatterns().get(packaging);
-        Node finalNameNode = (Node) getxPath().evaluate("//finalName", doc, XPathConstants.NODE);
-        String declaredFinalName = finalNameNode == null ? project.getBuild().getFinalName() : finalNameNode.getTextContent();
+        PomElement finalNameElement = getPomModelIndex(project).getFinalName();
+        String declaredFinalName = finalNameElement == null ? project.getBuild().getFinalName() : finalNameElement.getValue();
         if (expectedFinalName != null && !expectedFinalName.equals(declaredFinalName)) {
-            int lineNumber = finalNameNode == null ? 0 : XMLUtil.getLineNumberFromNode(finalNameNode);
+            int lineNumber = finalNameElement == null ? 0 : finalNameElement.getLineNumber();
             addViolation(project.getFile(), results, lineNumber, ("File doesn't contain <finalName>" + expectedFinalName + "</finalName>"));
         }
     }
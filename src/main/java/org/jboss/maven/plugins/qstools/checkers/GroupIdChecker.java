@@ -19,13 +19,10 @@ package org.jboss.maven.plugins.qstools.checkers;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 
 /**
  * @author Rafael Benevides
@@ -57,9 +54,9 @@ public class GroupIdChecker extends AbstractBaseCheckerAdapter {
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
         groupId = getConfigurationProvider().getQuickstartsRules(project.getGroupId()).getGroupId();
 
-        Node node = (Node) getxPath().evaluate("/project/groupId", doc, XPathConstants.NODE);
-        if (node != null && !project.getGroupId().equals(groupId)) {
-            int lineNumber = XMLUtil.getLineNumberFromNode(node);
+        PomElement groupIdElement = getPomModelIndex(project).getGroupId();
+        if (groupIdElement != null && !project.getGroupId().equals(groupId)) {
+            int lineNumber = groupIdElement.getLineNumber();
             addViolation(project.getFile(), results, lineNumber, "The project groupId[" + project.getGroupId() + "] doesn't use groupId '" + groupId + "'");
         }
 
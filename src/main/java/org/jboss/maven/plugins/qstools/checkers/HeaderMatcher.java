@@ -0,0 +1,188 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.checkers;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Matches the beginning of a file against a header made of one regular expression per line.
+ *
+ * It gives the same results as the Checkstyle RegexpHeader check: the multi lines of the header may match any number
+ * of lines (including none), and only the first mismatch is reported. Only the beginning of each file is read, unless
+ * the multi lines need more lines.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public class HeaderMatcher {
+
+    /**
+     * Bytes read from each file before checking the header
+     */
+    private static final int PREFIX_LENGTH = 8 * 1024;
+
+    /**
+     * The line terminators used by Checkstyle
+     */
+    private static final Pattern LINE_TERMINATOR = Pattern.compile("\\n|\\r\\n?");
+
+    /**
+     * Returned when the beginning of the file isn't enough to decide
+     */
+    private static final Violation NEED_MORE_LINES = new Violation(null, 0, null);
+
+    private final Class<? extends QSChecker> checker;
+
+    private final List<String> headerLines;
+
+    private final List<Pattern> headerPatterns;
+
+    private final int[] multiLines;
+
+    /**
+     * @param checker the checker of the violations
+     * @param headerLines the regular expression of each header line
+     * @param multiLines the header lines (starting at 1) that may match any number of file lines
+     */
+    public HeaderMatcher(Class<? extends QSChecker> checker, List<String> headerLines, int[] multiLines) {
+        this.checker = checker;
+        this.headerLines = Collections.unmodifiableList(new ArrayList<String>(headerLines));
+        List<Pattern> patterns = new ArrayList<Pattern>();
+        for (String headerLine : headerLines) {
+            patterns.add(Pattern.compile(headerLine));
+        }
+        this.headerPatterns = Collections.unmodifiableList(patterns);
+        this.multiLines = multiLines.clone();
+        Arrays.sort(this.multiLines);
+    }
+
+    /**
+     * @param file the file to check
+     *
+     * @return the header violation of the file, or null if its header matches
+     *
+     * @throws IOException if the file can't be read
+     */
+    public Violation check(File file) throws IOException {
+        byte[] prefix = new byte[PREFIX_LENGTH];
+        int length = 0;
+        boolean complete = false;
+        InputStream is = new FileInputStream(file);
+        try {
+            while (length < prefix.length) {
+                int read = is.read(prefix, length, prefix.length - length);
+                if (read == -1) {
+                    complete = true;
+                    break;
+                }
+                length += read;
+            }
+            if (!complete && is.read() == -1) {
+                complete = true;
+            }
+        } finally {
+            is.close();
+        }
+        if (!complete) {
+            // Only the complete lines, so no UTF-8 sequence is cut
+            int end = length - 1;
+            while (end >= 0 && prefix[end] != '\n') {
+                end--;
+            }
+            length = end + 1;
+        }
+        Violation violation = check(toLines(new String(prefix, 0, length, StandardCharsets.UTF_8)), complete);
+        if (violation == NEED_MORE_LINES) {
+            // Not decided by the beginning of the file
+            violation = check(toLines(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8)), true);
+        }
+        return violation;
+    }
+
+    /**
+     * Same as RegexpHeaderCheck#processFiltered
+     *
+     * @return the violation, null if the header matches, or {@link #NEED_MORE_LINES} if the lines aren't complete and
+     *         more lines are needed
+     */
+    private Violation check(List<String> lines, boolean complete) {
+        int headerSize = headerPatterns.size();
+        int fileSize = lines.size();
+        if (headerSize - multiLines.length > fileSize) {
+            return complete ? missing() : NEED_MORE_LINES;
+        }
+        int headerLineNo = 0;
+        int i;
+        for (i = 0; headerLineNo < headerSize && i < fileSize; i++) {
+            String line = lines.get(i);
+            boolean isMatch = isMatch(line, headerLineNo);
+            while (!isMatch && isMultiLine(headerLineNo)) {
+                headerLineNo++;
+                isMatch = headerLineNo == headerSize || isMatch(line, headerLineNo);
+            }
+            if (!isMatch) {
+                return new Violation(checker, i + 1, "Line does not match expected header line of '" + headerLines.get(headerLineNo)
+                    + "'.");
+            }
+            if (!isMultiLine(headerLineNo)) {
+                headerLineNo++;
+            }
+        }
+        if (i == fileSize) {
+            if (!complete && headerLineNo < headerSize) {
+                return NEED_MORE_LINES;
+            }
+            // The file finished, but the header has lines that aren't multi lines
+            for (; headerLineNo < headerSize; headerLineNo++) {
+                if (!isMultiLine(headerLineNo)) {
+                    return missing();
+                }
+            }
+        }
+        return null;
+    }
+
+    private Violation missing() {
+        return new Violation(checker, 1, "Missing a header - not enough lines in file.");
+    }
+
+    private boolean isMatch(String line, int headerLineNo) {
+        return headerPatterns.get(headerLineNo).matcher(line).find();
+    }
+
+    private boolean isMultiLine(int headerLineNo) {
+        return Arrays.binarySearch(multiLines, headerLineNo + 1) >= 0;
+    }
+
+    /**
+     * Split the text as Checkstyle does. Empty lines at the end are removed.
+     */
+    private static List<String> toLines(String text) {
+        return Arrays.asList(LINE_TERMINATOR.split(text, 0));
+    }
+
+}
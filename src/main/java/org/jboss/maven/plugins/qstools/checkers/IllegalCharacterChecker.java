@@ -16,10 +16,14 @@
  */
 package org.jboss.maven.plugins.qstools.checkers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.codehaus.plexus.component.annotations.Component;
+import org.jboss.maven.plugins.qstools.checkers.ByteScanner.ScanResult;
 
 @Component(role = QSChecker.class, hint = "IllegalCharacterChecker")
-public class IllegalCharacterChecker extends AbstractCheckstyleChecker {
+public class IllegalCharacterChecker extends AbstractByteScannerChecker {
 
     /*
      * (non-Javadoc)
@@ -33,12 +37,26 @@ public class IllegalCharacterChecker extends AbstractCheckstyleChecker {
 
     @Override
     String getIncludes() {
-        return "**/*.*";
+        return "**/*.xml, **/*.xsd, **/*.properties, **/*.html, **/*.xhtml, **/*.sql, **/*.css";
+    }
+
+    @Override
+    boolean isFindTabs() {
+        return false;
+    }
+
+    @Override
+    boolean isFindNonAscii() {
+        return true;
     }
 
     @Override
-    String getCheckstyleConfig() {
-        return "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/checkstyle-illegalchar.xml";
+    List<Violation> getViolations(ScanResult result) {
+        List<Violation> violations = new ArrayList<Violation>();
+        for (Integer line : result.getNonAsciiLines()) {
+            violations.add(new Violation(getClass(), line, "Illegal character (non US-ASCII) used. Use unicode instead."));
+        }
+        return violations;
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.checkers;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads the import declarations of a Java source.
+ *
+ * It is a small lexer that only knows comments, identifiers and the punctuation of the package and import
+ * declarations. It stops on the first token of the type declarations, so the rest of the file isn't read.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public class JavaImportScanner {
+
+    private final Reader reader;
+
+    private int line = 1;
+
+    private int next = -2;
+
+    private JavaImportScanner(Reader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * @param reader the Java source. It isn't closed.
+     *
+     * @return the imports of the source, on declaration order
+     *
+     * @throws IOException if the source can't be read
+     */
+    public static List<JavaImport> scan(Reader reader) throws IOException {
+        return new JavaImportScanner(reader).scan();
+    }
+
+    private List<JavaImport> scan() throws IOException {
+        List<JavaImport> imports = new ArrayList<JavaImport>();
+        // Byte order mark
+        if (peek() == '\uFEFF') {
+            read();
+        }
+        while (true) {
+            String token = nextToken();
+            int tokenLine = line;
+            if ("package".equals(token)) {
+                // Skip the package name
+                while (token != null && !";".equals(token)) {
+                    token = nextToken();
+                }
+            } else if ("import".equals(token)) {
+                StringBuilder name = new StringBuilder();
+                token = nextToken();
+                if ("static".equals(token)) {
+                    token = nextToken();
+                }
+                while (token != null && !";".equals(token)) {
+                    name.append(token);
+                    token = nextToken();
+                }
+                imports.add(new JavaImport(tokenLine, name.toString()));
+            } else if (!";".equals(token)) {
+                // End of file or start of the type declarations
+                return imports;
+            }
+        }
+    }
+
+    /**
+     * @return the next identifier or punctuation char, or null at the end of the file
+     */
+    private String nextToken() throws IOException {
+        while (true) {
+            int c = read();
+            if (c == -1) {
+                return null;
+            } else if (Character.isWhitespace(c)) {
+                continue;
+            } else if (c == '/' && peek() == '/') {
+                while (c != -1 && c != '\n') {
+                    c = read();
+                }
+            } else if (c == '/' && peek() == '*') {
+                read();
+                int previous = 0;
+                c = read();
+                while (c != -1 && !(previous == '*' && c == '/')) {
+                    previous = c;
+                    c = read();
+                }
+            } else if (Character.isJavaIdentifierStart(c)) {
+                StringBuilder identifier = new StringBuilder().append((char) c);
+                while (peek() != -1 && Character.isJavaIdentifierPart(peek())) {
+                    identifier.append((char) read());
+                }
+                return identifier.toString();
+            } else {
+                return String.valueOf((char) c);
+            }
+        }
+    }
+
+    private int peek() throws IOException {
+        if (next == -2) {
+            next = reader.read();
+        }
+        return next;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        next = -2;
+        if (c == '\n') {
+            line++;
+        }
+        return c;
+    }
+
+    /**
+     * An import declaration
+     */
+    public static class JavaImport {
+
+        private final int line;
+
+        private final String name;
+
+        public JavaImport(int line, String name) {
+            this.line = line;
+            this.name = name;
+        }
+
+        /**
+         * @return the line of the import keyword
+         */
+        public int getLine() {
+            return line;
+        }
+
+        /**
+         * @return the imported name, as written on the source without spaces and comments (ex: java.util.List or
+         *         java.util.*)
+         */
+        public String getName() {
+            return name;
+        }
+    }
+
+}
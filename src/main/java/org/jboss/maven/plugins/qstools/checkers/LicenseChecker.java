@@ -19,12 +19,10 @@ package org.jboss.maven.plugins.qstools.checkers;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 
 /**
  * @author Rafael Benevides
@@ -46,8 +44,8 @@ public class LicenseChecker extends AbstractBaseCheckerAdapter {
      */
     @Override
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
-        Node licenseURL = (Node) getxPath().evaluate("/project/licenses/license/url", doc, XPathConstants.NODE);
-        if (licenseURL == null || !licenseURL.getTextContent().contains("apache")) {
+        List<PomElement> licenseURLs = getPomModelIndex(project).getLicenseUrls();
+        if (licenseURLs.isEmpty() || !licenseURLs.get(0).getValue().contains("apache")) {
             addViolation(project.getFile(), results, 0, "File doesn't the 'Apache License, Version 2.0' license");
         }
 
@@ -16,24 +16,20 @@
  */
 package org.jboss.maven.plugins.qstools.checkers;
 
-import java.util.Collection;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.jboss.maven.plugins.qstools.Utils;
 import org.jboss.maven.plugins.qstools.common.ProjectUtil;
 import org.jboss.maven.plugins.qstools.config.Rules;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomRepository;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * @author Rafael Benevides
@@ -56,33 +52,27 @@ public class MavenApprovedRepositoriesChecker extends AbstractBaseCheckerAdapter
         if (!rules.isCheckerIgnored(MavenCentralRepositoryChecker.class) || rules.isCheckerIgnored(getClass())) {
             this.setCheckerMessage("This checker was ignored because MavenCentralRepositoryChecker is active.");
         } else {
-            Node repositoriesNode = (Node) getxPath().evaluate("/project/repositories", doc, XPathConstants.NODE);
+            PomModelIndex pomModelIndex = getPomModelIndex(project);
             // only valid for top-level projects
             if (!projectUtil.isSubProjec(project)) {
                 String complement = "- Please, run mvn org.jboss.maven.plugins:qstools:" + Utils.getQStoolsVersion() + ":repositories to fix it";
-                if (repositoriesNode == null) {
+                if (pomModelIndex.getRepositoriesElement() == null) {
                     addViolation(project.getFile(), results, 0, "pom.xml doesn't contain a <repository /> section.");
                 } else {
-                    NodeList ids = (NodeList) getxPath().evaluate("/project/repositories/repository/id", doc, XPathConstants.NODESET);
                     Set<String> approvedIds = rules.getMavenApprovedRepositories().keySet();
-                    for (int x = 0; x < ids.getLength(); x++) {
-                        String id = ids.item(x).getTextContent();
-                        if (!approvedIds.contains(id)) {
-                            int lineNumber = XMLUtil.getLineNumberFromNode(ids.item(x));
-                            addViolation(project.getFile(), results, lineNumber, "The following id [" + id + "] is not an approved JBoss Maven Repository Id." + complement);
+                    for (PomRepository repository : pomModelIndex.getRepositories()) {
+                        PomElement id = repository.getId();
+                        if (id != null && !approvedIds.contains(id.getValue())) {
+                            addViolation(project.getFile(), results, id.getLineNumber(), "The following id [" + id.getValue() + "] is not an approved JBoss Maven Repository Id."
+                                + complement);
                         }
                     }
-                    NodeList urls = (NodeList) getxPath().evaluate("/project/repositories/repository/url", doc, XPathConstants.NODESET);
-                    Collection<String> approvedUrlsRaw = rules.getMavenApprovedRepositories().values();
-                    Set<String> approvedUrls = new HashSet<String>();
-                    for (String rawValue : approvedUrlsRaw) {
-                        approvedUrls.add(rawValue.split("[|]")[0]);
-                    }
-                    for (int x = 0; x < ids.getLength(); x++) {
-                        String url = urls.item(x).getTextContent();
-                        if (!approvedUrls.contains(url)) {
-                            int lineNumber = XMLUtil.getLineNumberFromNode(urls.item(x));
-                            addViolation(project.getFile(), results, lineNumber, "The following url [" + url + "] is not an approved JBoss Maven Repository URL." + complement);
+                    Set<String> approvedUrls = rules.getMavenApprovedRepositoryUrls();
+                    for (PomRepository repository : pomModelIndex.getRepositories()) {
+                        PomElement url = repository.getUrl();
+                        if (url != null && !approvedUrls.contains(url.getValue())) {
+                            addViolation(project.getFile(), results, url.getLineNumber(), "The following url [" + url.getValue()
+                                + "] is not an approved JBoss Maven Repository URL." + complement);
                         }
                     }
                 }
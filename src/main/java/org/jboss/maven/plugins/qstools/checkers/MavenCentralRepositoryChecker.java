@@ -16,21 +16,19 @@
  */
 package org.jboss.maven.plugins.qstools.checkers;
 
-import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.xml.xpath.XPathConstants;
 
-import org.apache.maven.artifact.Artifact;
-import org.apache.maven.artifact.repository.ArtifactRepository;
-import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
-import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
 import org.apache.maven.model.Dependency;
 import org.apache.maven.project.MavenProject;
-import org.apache.maven.repository.RepositorySystem;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
+import org.jboss.maven.plugins.qstools.Utils;
+import org.jboss.maven.plugins.qstools.config.CentralArtifactResolver;
 import org.jboss.maven.plugins.qstools.xml.XMLUtil;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -43,7 +41,7 @@ import org.w3c.dom.Node;
 public class MavenCentralRepositoryChecker extends AbstractBaseCheckerAdapter {
 
     @Requirement
-    private RepositorySystem repositorySystem;
+    private CentralArtifactResolver centralArtifactResolver;
 
     /*
      * (non-Javadoc)
@@ -64,18 +62,32 @@ public class MavenCentralRepositoryChecker extends AbstractBaseCheckerAdapter {
      */
     @Override
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
+        if (Utils.isOffline(getContext())) {
+            setCheckerMessage("This checker was skipped because QSTools is running offline. Maven Central can't be queried.");
+            return;
+        }
+        // All dependencies of the reactor are resolved at once, so each artifact is resolved only once
+        Set<String> gavs = new LinkedHashSet<String>();
+        for (MavenProject reactorProject : getMavenSession().getProjects()) {
+            for (Dependency dependency : reactorProject.getDependencies()) {
+                gavs.add(dependency.getGroupId() + ":" + dependency.getArtifactId() + ":" + dependency.getVersion());
+            }
+        }
+        centralArtifactResolver.resolve(gavs);
         for (Dependency dependency : project.getDependencies()) {
-            Artifact dependencyArtifact = repositorySystem.createProjectArtifact(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
-            ArtifactResolutionRequest arr = new ArtifactResolutionRequest();
-
-            List<ArtifactRepository> remoteRepositories = new ArrayList<ArtifactRepository>();
-            remoteRepositories.add(repositorySystem.createDefaultRemoteRepository());
-
-            arr.setArtifact(dependencyArtifact).setRemoteRepositories(remoteRepositories).setLocalRepository(getMavenSession().getLocalRepository());
-            ArtifactResolutionResult result = repositorySystem.resolve(arr);
-            Node dependencyNode = (Node) getxPath().evaluate("//artifactId[text() ='" + dependency.getArtifactId() + "']", doc, XPathConstants.NODE);
-            int lineNumber = XMLUtil.getLineNumberFromNode(dependencyNode);
-            if (!result.isSuccess()) {
+            boolean available;
+            try {
+                available = centralArtifactResolver.isAvailable(dependency.getGroupId(), dependency.getArtifactId(), dependency.getVersion());
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Exception e) {
+                // Reported as not available, as a failed resolution always was, but only for this dependency
+                getLog().warn("Can't check " + dependency + " on Maven Central Repository: " + e.getMessage());
+                available = false;
+            }
+            if (!available) {
+                Node dependencyNode = (Node) getxPath().evaluate("//artifactId[text() ='" + dependency.getArtifactId() + "']", doc, XPathConstants.NODE);
+                int lineNumber = XMLUtil.getLineNumberFromNode(dependencyNode);
                 addViolation(project.getFile(), results, lineNumber, dependency + " doesn't comes from Maven Central Repository");
             }
         }
@@ -19,14 +19,11 @@ package org.jboss.maven.plugins.qstools.checkers;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomPlugin;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * @author Rafael Benevides
@@ -62,18 +59,24 @@ public class MavenCompilerChecker extends AbstractBaseCheckerAdapter {
         } else if (!target.equals(compilerSource) || !compiler.equals(compilerSource)) {
             addViolation(project.getFile(), results, 1, "<maven.compiler.source/> and <maven.compiler.target/> should be set to " + compilerSource);
         }
-        Node compilerNode = (Node) getxPath().evaluate("/project/build/plugins/plugin[artifactId='maven-compiler-plugin']", doc, XPathConstants.NODE);
-        Node compilerConfigNode = (Node) getxPath().evaluate("/project/build/plugins/plugin[artifactId='maven-compiler-plugin']/./configuration", doc, XPathConstants.NODE);
-        int lineNumber = compilerConfigNode == null ? -1 : XMLUtil.getLineNumberFromNode(compilerConfigNode);
-        if (compilerNode != null && compilerConfigNode == null) {
-            addViolation(project.getFile(), results, lineNumber, "You should NOT declare 'maven-compile-plugin' without any configuration");
-        } else if (compilerConfigNode != null) {
-            NodeList configs = compilerConfigNode.getChildNodes();
-            for (int i = 0; i < configs.getLength(); i++) {
-                Node config = configs.item(i);
-                if (config.getNodeName().equals("source") || config.getNodeName().equals("target")) {
-                    lineNumber = compilerConfigNode == null ? -1 : XMLUtil.getLineNumberFromNode(config);
-                    addViolation(project.getFile(), results, lineNumber, "You should not define 'source' or 'target' for 'maven-compiler-plugin'");
+        PomPlugin compilerPlugin = null;
+        PomPlugin compilerConfigPlugin = null;
+        for (PomPlugin plugin : getPomModelIndex(project).getPlugins()) {
+            if ("maven-compiler-plugin".equals(plugin.getArtifact().getArtifactId())) {
+                if (compilerPlugin == null) {
+                    compilerPlugin = plugin;
+                }
+                if (compilerConfigPlugin == null && plugin.getConfiguration() != null) {
+                    compilerConfigPlugin = plugin;
+                }
+            }
+        }
+        if (compilerPlugin != null && compilerConfigPlugin == null) {
+            addViolation(project.getFile(), results, -1, "You should NOT declare 'maven-compile-plugin' without any configuration");
+        } else if (compilerConfigPlugin != null) {
+            for (PomElement config : compilerConfigPlugin.getConfigurationElements()) {
+                if (config.getName().equals("source") || config.getName().equals("target")) {
+                    addViolation(project.getFile(), results, config.getLineNumber(), "You should not define 'source' or 'target' for 'maven-compiler-plugin'");
                 }
             }
         }
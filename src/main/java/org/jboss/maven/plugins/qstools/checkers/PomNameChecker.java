@@ -19,16 +19,13 @@ package org.jboss.maven.plugins.qstools.checkers;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.jboss.maven.plugins.qstools.common.PomNameUtil;
 import org.jboss.maven.plugins.qstools.config.Rules;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 
 /**
  * @author Rafael Benevides
@@ -62,8 +59,8 @@ public class PomNameChecker extends AbstractBaseCheckerAdapter {
         Rules rules = getConfigurationProvider().getQuickstartsRules(project.getGroupId());
         String pattern = pomNameUtil.getExpectedPattern(project, rules);
         if (!pattern.equals(project.getName())) {
-            Node nameNode = (Node) getxPath().evaluate("/project/name", doc, XPathConstants.NODE);
-            int lineNumber = XMLUtil.getLineNumberFromNode(nameNode);
+            PomElement nameElement = getPomModelIndex(project).getName();
+            int lineNumber = nameElement == null ? 0 : nameElement.getLineNumber();
             String msg = "Project uses name [%s] but should use the define name: %s";
             addViolation(project.getFile(), results, lineNumber, String.format(msg, project.getName(), pattern));
         }
@@ -16,10 +16,40 @@
  */
 package org.jboss.maven.plugins.qstools.checkers;
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.jboss.maven.plugins.qstools.checkers.JavaImportScanner.JavaImport;
+import org.jboss.maven.plugins.qstools.config.PrivateApiIndex;
+import org.jboss.maven.plugins.qstools.config.PrivateApiIndex.PackageTrie;
+import org.jboss.maven.plugins.qstools.config.Rules;
 
+/**
+ * Verifies the imports of the Java sources against the packages of the private modules of the server, listed on the
+ * Checkstyle configuration this checker used before.
+ *
+ * Only the import declarations are read from each source, and each import is checked walking the {@link PackageTrie}
+ * of the private packages.
+ *
+ * @author Rafael Benevides
+ *
+ */
 @Component(role = QSChecker.class, hint = "privateApiChecker")
-public class PrivateApiChecker extends AbstractCheckstyleChecker {
+public class PrivateApiChecker extends AbstractParallelFileChecker {
+
+    private static final String DEFAULT_CONFIG_LOCATION = "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/checkstyle-private_api.xml";
+
+    @Requirement
+    private PrivateApiIndex privateApiIndex;
 
     /*
      * (non-Javadoc)
@@ -32,13 +62,36 @@ public class PrivateApiChecker extends AbstractCheckstyleChecker {
     }
 
     @Override
-    public String getIncludes() {
+    String getIncludes() {
         return "**/*.java";
     }
 
     @Override
-    String getCheckstyleConfig() {
-        return "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/checkstyle-private_api.xml";
+    FileCheck createFileCheck(MavenProject project, Rules rules) throws Exception {
+        String configLocation = rules.getPrivateApiConfigLocation() == null ? DEFAULT_CONFIG_LOCATION : rules.getPrivateApiConfigLocation();
+        final PackageTrie privatePackages = privateApiIndex.getPrivatePackages(configLocation);
+        return new FileCheck() {
+
+            @Override
+            public List<Violation> check(File file) throws Exception {
+                return checkSource(file, privatePackages);
+            }
+        };
+    }
+
+    private List<Violation> checkSource(File source, PackageTrie privatePackages) throws Exception {
+        List<Violation> violations = new ArrayList<Violation>();
+        Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(source), StandardCharsets.UTF_8));
+        try {
+            for (JavaImport javaImport : JavaImportScanner.scan(reader)) {
+                if (privatePackages.matches(javaImport.getName())) {
+                    violations.add(new Violation(getClass(), javaImport.getLine(), "Import from private API detected - " + javaImport.getName() + "."));
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return violations;
     }
 
-}
\ No newline at end of file
+}
@@ -18,17 +18,12 @@ package org.jboss.maven.plugins.qstools.checkers;
 
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
-
-import javax.xml.xpath.XPathConstants;
 
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
 import org.jboss.maven.plugins.qstools.maven.MavenDependency;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomArtifact;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 
 /**
  * @author Rafael Benevides
@@ -55,12 +50,10 @@ public class PropertiesNameChecker extends AbstractBaseCheckerAdapter {
      */
     @Override
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
-        Properties recommendedPropertiesNames = getConfigurationProvider().getQuickstartsRules(project.getGroupId()).getPropertiesNames();
-        NodeList dependencies = (NodeList) getxPath().evaluate("//dependencies/dependency| //plugins/plugin ", doc, XPathConstants.NODESET);
+        Map<String, String> recommendedPropertiesNames = getConfigurationProvider().getQuickstartsRules(project.getGroupId()).getPropertiesNames();
         // Iterate over all Declared Dependencies
-        for (int x = 0; x < dependencies.getLength(); x++) {
-            Node dependency = dependencies.item(x);
-            MavenDependency mavenDependency = getDependencyProvider().getDependencyFromNode(project, dependency);
+        for (PomArtifact dependency : getPomModelIndex(project).getAllDependenciesAndPlugins()) {
+            MavenDependency mavenDependency = dependency.getArtifact();
             String groupId = mavenDependency.getGroupId();
             String artifactId = mavenDependency.getArtifactId();
             String version = mavenDependency.getDeclaredVersion() == null ? null : mavenDependency.getDeclaredVersion().replaceAll("[${}]", "");
@@ -69,8 +62,8 @@ public class PropertiesNameChecker extends AbstractBaseCheckerAdapter {
             if (groupId != null && artifactId != null && version != null // If the dependency has a GAV
                 // that we manage
                 && (recommendedPropertiesNames.containsKey(groupArtifactId) || recommendedPropertiesNames.containsKey(groupId))) {
-                String recommendedNameGA = (String) recommendedPropertiesNames.get(groupArtifactId);
-                String recommendedNameG = (String) recommendedPropertiesNames.get(groupId);
+                String recommendedNameGA = recommendedPropertiesNames.get(groupArtifactId);
+                String recommendedNameG = recommendedPropertiesNames.get(groupId);
                 boolean wrongVersionName = false;
                 if (recommendedNameGA != null && !recommendedNameGA.equals(version)) {
                     wrongVersionName = true;
@@ -80,7 +73,7 @@ public class PropertiesNameChecker extends AbstractBaseCheckerAdapter {
                     wrongVersionName = true;
                 }
                 if (wrongVersionName) {
-                    int lineNumber = XMLUtil.getLineNumberFromNode(dependency);
+                    int lineNumber = dependency.getLineNumber();
                     String msg = "Version for [%s:%s:%s] isn't using the recommended property name: %s";
                     // GroupId + ArtifacIt has precedence
                     String recommendedName = recommendedNameGA != null ? recommendedNameGA : recommendedNameG;
@@ -32,6 +32,7 @@ import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.jboss.maven.plugins.qstools.common.ReadmeUtil;
+import org.jboss.maven.plugins.qstools.config.Rules;
 import org.w3c.dom.Document;
 
 /**
@@ -79,7 +80,9 @@ public class ReadmeChecker extends AbstractBaseCheckerAdapter {
      * Check if the file contains all defined metadata
      */
     private void checkReadmeFile(String groupId, File readme, Map<String, List<Violation>> results) throws IOException {
-        Map<String, String> metadatas = getConfigurationProvider().getQuickstartsRules(groupId).getReadmeMetadatas();
+        Rules rules = getConfigurationProvider().getQuickstartsRules(groupId);
+        Map<String, String> metadatas = rules.getReadmeMetadatas();
+        Map<String, Pattern> metadataPatterns = rules.getReadmeMetadataPatterns();
         BufferedReader br = new BufferedReader(new FileReader(readme));
         try {
             Pattern p = Pattern.compile(regexPattern);
@@ -98,7 +101,7 @@ public class ReadmeChecker extends AbstractBaseCheckerAdapter {
                 if (usedPatterns.contains(metadata)) {
                     String value = usedValues.get(metadata);
                     String expected = metadatas.get(metadataRaw);
-                    if (!value.matches(expected)) {
+                    if (!metadataPatterns.get(metadataRaw).matcher(value).matches()) {
                         String msg = "Content for metadata [%s = %s] should follow the [%s] pattern";
                         addViolation(readme, results, 0, String.format(msg, metadata, value, expected));
                     }
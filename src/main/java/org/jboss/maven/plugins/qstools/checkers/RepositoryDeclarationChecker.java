@@ -19,12 +19,9 @@ package org.jboss.maven.plugins.qstools.checkers;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.project.MavenProject;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 
 /**
  * @author Rafael Benevides
@@ -53,9 +50,9 @@ public class RepositoryDeclarationChecker extends AbstractBaseCheckerAdapter {
      */
     @Override
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
-        Node repositoriesNode = (Node) getxPath().evaluate("//project/repositories", doc, XPathConstants.NODE);
-        if (repositoriesNode != null) {
-            int lineNumber = XMLUtil.getLineNumberFromNode(repositoriesNode);
+        PomElement repositoriesElement = getPomModelIndex(project).getRepositoriesElement();
+        if (repositoriesElement != null) {
+            int lineNumber = repositoriesElement.getLineNumber();
             addViolation(project.getFile(), results, lineNumber, ("You should NOT declare <repositories/> on your pom.xml"));
         }
     }
@@ -17,17 +17,12 @@
 package org.jboss.maven.plugins.qstools.checkers;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.TreeMap;
 
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
@@ -36,10 +31,8 @@ import org.codehaus.plexus.component.annotations.Requirement;
 import org.jboss.maven.plugins.qstools.QSToolsException;
 import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
 import org.jboss.maven.plugins.qstools.config.Rules;
-import org.jboss.maven.plugins.qstools.xml.PositionalXMLReader;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndexProvider;
 
 /**
  * @author Rafael Benevides
@@ -50,13 +43,14 @@ public class SamePropertyValueChecker implements QSChecker {
 
     private int violationsQtd;
 
-    protected XPath xPath = XPathFactory.newInstance().newXPath();
-
     private Properties projectProperties = new Properties();
 
     @Requirement
     private ConfigurationProvider configurationProvider;
 
+    @Requirement
+    private PomModelIndexProvider pomModelIndexProvider;
+
     private String checkerMessage;
 
     /*
@@ -75,13 +69,10 @@ public class SamePropertyValueChecker implements QSChecker {
             } else {
                 // iterate over all reactor projects to iterate on all declared properties
                 for (MavenProject mavenProject : reactorProjects) {
-                    Document doc = PositionalXMLReader.readXML(new FileInputStream(mavenProject.getFile()));
-                    NodeList propertiesNodes = (NodeList) xPath.evaluate("/project/properties/*", doc, XPathConstants.NODESET);
                     // find all declared properties
-                    for (int x = 0; x < propertiesNodes.getLength(); x++) {
-                        Node property = propertiesNodes.item(x);
-                        String propertyName = property.getNodeName();
-                        String propertyValue = property.getTextContent();
+                    for (PomElement property : pomModelIndexProvider.getPomModelIndex(mavenProject).getProperties()) {
+                        String propertyName = property.getName();
+                        String propertyValue = property.getValue();
 
                         // skip ignored property
                         if (rules.getIgnoredDifferentValuesProperties().contains(propertyName)) {
@@ -92,7 +83,7 @@ public class SamePropertyValueChecker implements QSChecker {
                             projectProperties.put(propertyName, propertyValue);
                         } else if (projectProperties.get(propertyName) != null && !projectProperties.get(propertyName).equals(propertyValue)) {
                             // The property was used but with an different value
-                            int lineNumber = (Integer) property.getUserData(PositionalXMLReader.BEGIN_LINE_NUMBER_KEY_NAME);
+                            int lineNumber = property.getLineNumber();
                             String rootDirectory = (mavenSession.getExecutionRootDirectory() + File.separator).replace("\\", "\\\\");
                             String fileAsString = mavenProject.getFile().getAbsolutePath().replace(rootDirectory, "");
                             if (results.get(fileAsString) == null) {
@@ -16,21 +16,16 @@
  */
 package org.jboss.maven.plugins.qstools.checkers;
 
-import java.io.FileInputStream;
 import java.util.List;
 import java.util.Map;
 
-import javax.xml.xpath.XPathConstants;
-
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
 import org.jboss.maven.plugins.qstools.QSToolsException;
-import org.jboss.maven.plugins.qstools.xml.PositionalXMLReader;
-import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
 import org.w3c.dom.Document;
-import org.w3c.dom.Node;
 
 /**
  * @author Rafael Benevides
@@ -50,12 +45,11 @@ public class SameVersionChecker extends AbstractBaseCheckerAdapter {
     @Override
     public Map<String, List<Violation>> check(MavenProject project, MavenSession mavenSession, List<MavenProject> reactorProjects, Log log) throws QSToolsException {
         try {
-            Document doc = PositionalXMLReader.readXML(new FileInputStream(project.getFile()));
-            Node versionNode = (Node) getxPath().evaluate("/project/version", doc, XPathConstants.NODE);
-            if (versionNode == null) {
+            PomElement versionElement = getPomModelIndex(project).getVersion();
+            if (versionElement == null) {
                 rootVersion = project.getVersion();
             } else {
-                rootVersion = versionNode.getTextContent();
+                rootVersion = versionElement.getValue();
             }
         } catch (Exception e) {
             throw new QSToolsException(e);
@@ -82,11 +76,10 @@ public class SameVersionChecker extends AbstractBaseCheckerAdapter {
      */
     @Override
     public void checkProject(MavenProject project, Document doc, Map<String, List<Violation>> results) throws Exception {
-        Node versionNode = (Node) getxPath().evaluate("/project/version", doc, XPathConstants.NODE);
-        if (versionNode != null && !versionNode.getTextContent().equals(rootVersion)) {
-            int lineNumber = XMLUtil.getLineNumberFromNode(versionNode);
+        PomElement versionElement = getPomModelIndex(project).getVersion();
+        if (versionElement != null && !versionElement.getValue().equals(rootVersion)) {
             String msg = "This project uses a version [%s] different from the root version [%s]";
-            addViolation(project.getFile(), results, lineNumber, String.format(msg, versionNode.getTextContent(), rootVersion));
+            addViolation(project.getFile(), results, versionElement.getLineNumber(), String.format(msg, versionElement.getValue(), rootVersion));
         }
     }
 
@@ -16,10 +16,14 @@
  */
 package org.jboss.maven.plugins.qstools.checkers;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.codehaus.plexus.component.annotations.Component;
+import org.jboss.maven.plugins.qstools.checkers.ByteScanner.ScanResult;
 
 @Component(role = QSChecker.class, hint = "TabSpaceChecker")
-public class TabSpaceChecker extends AbstractCheckstyleChecker {
+public class TabSpaceChecker extends AbstractByteScannerChecker {
 
     /*
      * (non-Javadoc)
@@ -37,8 +41,22 @@ public class TabSpaceChecker extends AbstractCheckstyleChecker {
     }
 
     @Override
-    String getCheckstyleConfig() {
-        return "https://raw.github.com/jboss-developer/maven-qstools-plugin/master/config/checkstyle-tabspace.xml";
+    boolean isFindTabs() {
+        return true;
+    }
+
+    @Override
+    boolean isFindNonAscii() {
+        return false;
+    }
+
+    @Override
+    List<Violation> getViolations(ScanResult result) {
+        List<Violation> violations = new ArrayList<Violation>();
+        for (Integer line : result.getTabLines()) {
+            violations.add(new Violation(getClass(), line, "Line contains a tab character."));
+        }
+        return violations;
     }
 
     @Override
@@ -17,23 +17,34 @@
 package org.jboss.maven.plugins.qstools.checkers;
 
 import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.net.MalformedURLException;
 import java.net.URI;
+import java.net.URISyntaxException;
 import java.net.URL;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.TreeMap;
 
 import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.transform.Source;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.validation.Schema;
 import javax.xml.validation.SchemaFactory;
 import javax.xml.validation.Validator;
 
+import org.apache.commons.io.IOUtils;
 import org.apache.maven.execution.MavenSession;
 import org.apache.maven.plugin.logging.Log;
 import org.apache.maven.project.MavenProject;
@@ -44,12 +55,19 @@ import org.jboss.maven.plugins.qstools.QSToolsException;
 import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
 import org.jboss.maven.plugins.qstools.config.Resources;
 import org.jboss.maven.plugins.qstools.config.Rules;
+import org.jboss.maven.plugins.qstools.config.SchemaCatalog;
+import org.jboss.maven.plugins.qstools.xml.XMLClassifier;
+import org.jboss.maven.plugins.qstools.xml.XMLClassifier.Classification;
+import org.jboss.maven.plugins.qstools.xml.XMLSchemaReferences;
 import org.w3c.dom.ls.LSInput;
 import org.w3c.dom.ls.LSResourceResolver;
 import org.xml.sax.ErrorHandler;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
 /**
  * 
  * @author rafaelbenevides
@@ -57,6 +75,25 @@ import org.xml.sax.SAXParseException;
 @Component(role = QSChecker.class, hint = "ValidXMLSchemaChecker")
 public class ValidXMLSchemaChecker implements QSChecker {
 
+    private static final int MAX_COMPILED_SCHEMAS = 32;
+
+    /**
+     * Compiled Schemas keyed by the content of the Schemas declared by the XML files and by the XML catalog. It is static
+     * so the compiled grammars survive between runs when the plugin realm is reused (daemon or batch builds), and only
+     * the most recently used ones are kept.
+     */
+    private static final Map<String, Schema> COMPILED_SCHEMAS = new LinkedHashMap<String, Schema>(16, 0.75f, true) {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Schema> eldest) {
+            return size() > MAX_COMPILED_SCHEMAS;
+        }
+    };
+
+    private static final String CLASSIFICATION_CACHE = "qstools" + File.separator + "xml-classification-v3.properties";
+
     private int violationsQtd;
 
     @Requirement
@@ -65,6 +102,9 @@ public class ValidXMLSchemaChecker implements QSChecker {
     @Requirement
     private Resources resources;
 
+    @Requirement
+    private SchemaCatalog schemaCatalog;
+
     private String checkerMessage;
 
     private Log log;
@@ -96,16 +136,30 @@ public class ValidXMLSchemaChecker implements QSChecker {
                 // get all xml to process but excludes hidden files and /target and /bin folders
                 List<File> xmlFiles = FileUtils.getFiles(project.getBasedir(), "**/*.xml", rules.getExcludes());
                 SchemaFactory schemaFactory = SchemaFactory.newInstance(XMLConstants.W3C_XML_SCHEMA_NS_URI);
-                Schema schema = schemaFactory.newSchema();
+                // Used for DTDs, XMLs without Schema and when a Schema set can't be compiled
+                Schema dynamicSchema = schemaFactory.newSchema();
+                Set<String> failedSchemas = new HashSet<String>();
+                XMLClassifier classifier = new XMLClassifier(new File(project.getBuild().getDirectory(), CLASSIFICATION_CACHE));
                 for (File xml : xmlFiles) {
                     // Get relative path based on maven work dir
                     String rootDirectory = (mavenSession.getExecutionRootDirectory() + File.separator).replace("\\", "\\\\");
                     String fileAsString = xml.getAbsolutePath().replace(rootDirectory, "");
-                    Validator validator = schema.newValidator();
+                    log.info("Validating " + fileAsString);
+                    Classification classification = classifier.classify(xml);
+                    if (classification.getKind() == XMLClassifier.Kind.NO_SCHEMA) {
+                        // The same violation reported by the validator for a well-formed XML without Schema
+                        addViolation(fileAsString, classification.getRootElementLine(),
+                            "cvc-elt.1: Cannot find the declaration of element '" + classification.getRootElement() + "'.", results);
+                        continue;
+                    }
+                    Schema schema = null;
+                    if (classification.getKind() == XMLClassifier.Kind.XSD) {
+                        schema = getCompiledSchema(xml, classification.getReferences(), schemaFactory, failedSchemas);
+                    }
+                    Validator validator = (schema != null ? schema : dynamicSchema).newValidator();
                     validator.setResourceResolver(new URLBasedResourceResolver(xml));
                     validator.setErrorHandler(new XMLErrorHandler(fileAsString, results));
 
-                    log.info("Validating " + fileAsString);
                     try {
                         validator.validate(new StreamSource(new BufferedInputStream(new FileInputStream(xml))));
                     } catch (SAXException e) {
@@ -113,6 +167,7 @@ public class ValidXMLSchemaChecker implements QSChecker {
                         addViolation(fileAsString, 0, e.getMessage(), results);
                     }
                 }
+                classifier.save();
                 if (getCheckerMessage() != null) {
                     log.info("--> Checker Message: " + getCheckerMessage());
                 }
@@ -127,6 +182,114 @@ public class ValidXMLSchemaChecker implements QSChecker {
 
     }
 
+    /**
+     * Get the compiled Schema for the Schemas declared on the XML root element, compiling it only once.
+     *
+     * A compiled Schema ignores the xsi:schemaLocation hints found while validating, so it is only used when the root
+     * element is the only one declaring them.
+     *
+     * @param references the Schema references of the XML file. They are read again if null.
+     *
+     * @return the compiled Schema or null if the XML must be validated with the dynamic Schema
+     */
+    private Schema getCompiledSchema(File xml, XMLSchemaReferences references, SchemaFactory schemaFactory, Set<String> failedSchemas)
+        throws Exception {
+        if (references == null) {
+            try {
+                references = XMLSchemaReferences.read(xml);
+            } catch (XMLStreamException e) {
+                // The validator will report it
+                return null;
+            }
+        }
+        if (references.hasNestedSchemaLocations()) {
+            return null;
+        }
+        Map<String, URL> locations = new TreeMap<String, URL>();
+        try {
+            URI base = xml.toURI();
+            for (Map.Entry<String, String> schemaLocation : references.getSchemaLocations().entrySet()) {
+                locations.put(schemaLocation.getKey(), base.resolve(schemaLocation.getValue()).toURL());
+            }
+            if (references.getNoNamespaceSchemaLocation() != null) {
+                locations.put("", base.resolve(references.getNoNamespaceSchemaLocation()).toURL());
+            }
+        } catch (IllegalArgumentException e) {
+            log.debug("Invalid Schema location on " + xml + ": " + e.getMessage());
+            return null;
+        }
+        if (locations.isEmpty()) {
+            return null;
+        }
+        // The key has the content of the Schemas and the XML catalog used to resolve their imports, so a changed Schema
+        // or catalog is compiled again
+        Map<String, byte[]> contents = new TreeMap<String, byte[]>();
+        Hasher hasher = Hashing.sha1().newHasher().putString(schemaCatalog.getFingerprint(), StandardCharsets.UTF_8);
+        for (Map.Entry<String, URL> location : locations.entrySet()) {
+            if (failedSchemas.contains(location.getValue().toString())) {
+                return null;
+            }
+            byte[] content;
+            try {
+                content = readSchema(location.getKey(), location.getValue());
+            } catch (IOException e) {
+                log.debug("Can't read Schema " + location.getValue() + ": " + e.getMessage());
+                failedSchemas.add(location.getValue().toString());
+                return null;
+            }
+            contents.put(location.getKey(), content);
+            hasher.putString(" " + location.getKey() + " " + location.getValue() + " ", StandardCharsets.UTF_8).putBytes(content);
+        }
+        String key = hasher.hash().toString();
+        Schema schema;
+        synchronized (COMPILED_SCHEMAS) {
+            schema = COMPILED_SCHEMAS.get(key);
+        }
+        if (schema != null || failedSchemas.contains(key)) {
+            return schema;
+        }
+        schema = compileSchema(xml, schemaFactory, locations, contents);
+        if (schema == null) {
+            failedSchemas.add(key);
+        } else {
+            synchronized (COMPILED_SCHEMAS) {
+                COMPILED_SCHEMAS.put(key, schema);
+            }
+        }
+        return schema;
+    }
+
+    /**
+     * Read a Schema from the XML catalog, the resources cache or its local file
+     */
+    private byte[] readSchema(String namespace, URL location) throws Exception {
+        InputStream is = schemaCatalog.resolve(namespace.isEmpty() ? null : namespace, null, location.toString());
+        if (is == null) {
+            is = location.getProtocol().startsWith("http") ? resources.getFileInputStream(location) : location.openStream();
+        }
+        try {
+            return IOUtils.toByteArray(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    private Schema compileSchema(File xml, SchemaFactory schemaFactory, Map<String, URL> locations, Map<String, byte[]> contents) {
+        log.debug("Compiling Schemas " + locations.values());
+        try {
+            List<Source> sources = new ArrayList<Source>();
+            for (Map.Entry<String, URL> location : locations.entrySet()) {
+                sources.add(new StreamSource(new ByteArrayInputStream(contents.get(location.getKey())), location.getValue().toString()));
+            }
+            schemaFactory.setResourceResolver(new URLBasedResourceResolver(xml));
+            return schemaFactory.newSchema(sources.toArray(new Source[sources.size()]));
+        } catch (SAXException e) {
+            // Fallback to the dynamic Schema so the failure is reported as a violation of the XML file
+            log.debug("Can't compile Schemas " + locations.values() + ": " + e.getMessage());
+            return null;
+        }
+    }
+
     @Override
     public int getViolatonsQtd() {
         return violationsQtd;
@@ -193,14 +356,30 @@ public class ValidXMLSchemaChecker implements QSChecker {
                         input.setByteStream(fis);
                         input.setSystemId(systemId);
                     } else if (namespaceURI != null) {
-                        URI uri = new URI(baseURI == null ? "" : baseURI);
-                        URL url = uri.resolve(systemId == null ? "" : systemId).toURL();
-                        if (url.getProtocol().equals("http") && url.toString().endsWith(".xsd")) {
-                            InputStream is = resources.getFileInputStream(url);
+                        // The local XML catalog has precedence over the network
+                        InputStream is = systemId == null ? schemaCatalog.resolve(namespaceURI, null, null) : null;
+                        if (is == null) {
+                            URL url = toURL(baseURI, systemId);
+                            is = schemaCatalog.resolve(namespaceURI, null, url.toString());
+                            if (is == null && url.getProtocol().startsWith("http") && url.toString().endsWith(".xsd")) {
+                                is = resources.getFileInputStream(url);
+                            }
+                        }
+                        if (is != null) {
                             input.setBaseURI(baseURI);
                             input.setByteStream(is);
                         }
                     }
+                } else if (type.equals(XMLConstants.XML_DTD_NS_URI) && systemId != null) {
+                    URL url = toURL(baseURI, systemId);
+                    InputStream is = schemaCatalog.resolve(null, publicId, url.toString());
+                    if (is == null && url.getProtocol().startsWith("http")) {
+                        is = resources.getFileInputStream(url);
+                    }
+                    if (is != null) {
+                        input.setBaseURI(url.toString());
+                        input.setByteStream(is);
+                    }
                 }
             } catch (IllegalArgumentException e) {
                 // It's ok for XMLs without systemId and BaseURI
@@ -210,6 +389,14 @@ public class ValidXMLSchemaChecker implements QSChecker {
             return input;
         }
 
+        /**
+         * Resolve the systemId against the baseURI. The XML file location is used if there is no baseURI.
+         */
+        private URL toURL(String baseURI, String systemId) throws URISyntaxException, MalformedURLException {
+            URI uri = baseURI == null ? xml.getParentFile().toURI() : new URI(baseURI);
+            return uri.resolve(systemId == null ? "" : systemId).toURL();
+        }
+
         private class MyLSInput implements LSInput {
 
             private Reader characterStream;
@@ -31,6 +31,8 @@ import org.codehaus.plexus.component.annotations.Requirement;
 import org.jboss.maven.plugins.qstools.QSToolsException;
 import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
 import org.jboss.maven.plugins.qstools.config.Rules;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndex.PomElement;
+import org.jboss.maven.plugins.qstools.maven.PomModelIndexProvider;
 import org.jboss.maven.plugins.qstools.xml.PositionalXMLReader;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -46,6 +48,9 @@ public class ArtifactIdNameUtil {
     @Requirement
     private ConfigurationProvider configurationProvider;
 
+    @Requirement
+    private PomModelIndexProvider pomModelIndexProvider;
+
     public List<PomInformation> findAllIncorrectArtifactIdNames(List<MavenProject> reactorProjects, Rules rules) throws Exception {
 
         List<PomInformation> incorrectNames = new ArrayList<PomInformation>();
@@ -56,15 +61,13 @@ public class ArtifactIdNameUtil {
 
             for (MavenProject subProject : reactorProjects) {
 
-                Document doc = PositionalXMLReader.readXML(new FileInputStream(subProject.getFile()));
-
                 String expectedArtifactId = createArtifactId(artifactIdPrefix, rootDirOfQuickstarts, subProject.getBasedir());
-                Node actualArtifactId = ((Node) xPath.evaluate("/project/artifactId", doc, XPathConstants.NODE));
+                PomElement actualArtifactId = pomModelIndexProvider.getPomModelIndex(subProject).getArtifactId();
 
-                if (!expectedArtifactId.equals(actualArtifactId.getTextContent())) {
+                if (!expectedArtifactId.equals(actualArtifactId.getValue())) {
 
-                    int lineNumber = getLineNumberFromNode(actualArtifactId);
-                    incorrectNames.add(new PomInformation(subProject, lineNumber, expectedArtifactId, actualArtifactId.getTextContent(), subProject.getGroupId()));
+                    int lineNumber = actualArtifactId.getLineNumber();
+                    incorrectNames.add(new PomInformation(subProject, lineNumber, expectedArtifactId, actualArtifactId.getValue(), subProject.getGroupId()));
                 }
 
             }
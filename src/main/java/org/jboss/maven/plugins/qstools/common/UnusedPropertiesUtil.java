@@ -16,7 +16,6 @@
  */
 package org.jboss.maven.plugins.qstools.common;
 
-import java.io.FileInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -25,17 +24,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 
-import javax.xml.xpath.XPath;
-import javax.xml.xpath.XPathConstants;
-import javax.xml.xpath.XPathFactory;
-
 import org.apache.maven.project.MavenProject;
 import org.codehaus.plexus.component.annotations.Component;
 import org.jboss.maven.plugins.qstools.config.Rules;
-import org.jboss.maven.plugins.qstools.xml.PositionalXMLReader;
-import org.w3c.dom.Document;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
+import org.jboss.maven.plugins.qstools.xml.XMLTokenReader;
 
 /**
  * @author paul.robinson@redhat.com 27/11/2013
@@ -43,7 +35,7 @@ import org.w3c.dom.NodeList;
 @Component(role = UnusedPropertiesUtil.class)
 public class UnusedPropertiesUtil {
 
-    protected XPath xPath = XPathFactory.newInstance().newXPath();
+    private static final Pattern PROPERTY_EXPRESSION = Pattern.compile("\\$\\{\\w+(.\\w+)*(-\\w+)*\\}");
 
     private Set<String> usedProperties = new HashSet<String>();
 
@@ -53,29 +45,51 @@ public class UnusedPropertiesUtil {
         Map<String, List<PomInformation>> declaredProperties = new HashMap<String, List<PomInformation>>();
 
         for (MavenProject mavenProject : reactorProjects) {
-            Document doc = PositionalXMLReader.readXML(new FileInputStream(mavenProject.getFile()));
-            NodeList propertiesNodes = (NodeList) xPath.evaluate("/project/properties/*", doc, XPathConstants.NODESET);
-            NodeList allNodes = (NodeList) xPath.evaluate("//*", doc, XPathConstants.NODESET);
-            // find all declared properties
-            for (int x = 0; x < propertiesNodes.getLength(); x++) {
-                Node property = propertiesNodes.item(x);
-                String propertyName = property.getNodeName();
-                int lineNumber = (Integer) property.getUserData(PositionalXMLReader.BEGIN_LINE_NUMBER_KEY_NAME);
-                PomInformation pi = new PomInformation(mavenProject, lineNumber, property.getNodeName());
-                if (declaredProperties.get(propertyName) == null) {
-                    declaredProperties.put(propertyName, new ArrayList<PomInformation>());
-                }
-                declaredProperties.get(propertyName).add(pi);
-            }
-            // find all uses for properties expression
-            Pattern p = Pattern.compile("\\$\\{\\w+(.\\w+)*(-\\w+)*\\}");
-            for (int x = 0; x < allNodes.getLength(); x++) {
-                Node node = allNodes.item(x);
-                String nodeContent = node.getTextContent();
-                if (p.matcher(nodeContent).matches()) {
-                    String usedProperty = node.getTextContent().replaceAll("[${}]", "");
-                    usedProperties.add(usedProperty);
+            XMLTokenReader reader = XMLTokenReader.open(mavenProject.getFile());
+            try {
+                List<String> path = new ArrayList<String>();
+                // Text content of the open elements. Null when it can't be a property expression anymore.
+                List<StringBuilder> texts = new ArrayList<StringBuilder>();
+                while (reader.next()) {
+                    switch (reader.getToken()) {
+                        case START_ELEMENT:
+                            // find all declared properties: /project/properties/*
+                            if (path.size() == 2 && "project".equals(path.get(0)) && "properties".equals(path.get(1))) {
+                                String propertyName = reader.getName();
+                                PomInformation pi = new PomInformation(mavenProject, reader.getBeginLine(), propertyName);
+                                if (declaredProperties.get(propertyName) == null) {
+                                    declaredProperties.put(propertyName, new ArrayList<PomInformation>());
+                                }
+                                declaredProperties.get(propertyName).add(pi);
+                            }
+                            path.add(reader.getName());
+                            texts.add(new StringBuilder());
+                            break;
+                        case TEXT:
+                            for (int x = 0; x < texts.size(); x++) {
+                                StringBuilder text = texts.get(x);
+                                if (text != null) {
+                                    text.append(reader.getText());
+                                    if (!isPropertyExpressionPrefix(text)) {
+                                        texts.set(x, null);
+                                    }
+                                }
+                            }
+                            break;
+                        case END_ELEMENT:
+                            path.remove(path.size() - 1);
+                            StringBuilder text = texts.remove(texts.size() - 1);
+                            // find all uses for properties expression
+                            if (text != null && PROPERTY_EXPRESSION.matcher(text).matches()) {
+                                usedProperties.add(text.toString().replaceAll("[${}]", ""));
+                            }
+                            break;
+                        default:
+                            break;
+                    }
                 }
+            } finally {
+                reader.close();
             }
         }
         // search if all declared properties have been used
@@ -90,6 +104,13 @@ public class UnusedPropertiesUtil {
         return unusedPropertyInfo;
     }
 
+    /**
+     * The text of an element (all its descendant text) can only match {@link #PROPERTY_EXPRESSION} if it starts with ${
+     */
+    private static boolean isPropertyExpressionPrefix(CharSequence text) {
+        return (text.length() < 1 || text.charAt(0) == '$') && (text.length() < 2 || text.charAt(1) == '{');
+    }
+
     public class PomInformation {
 
         private MavenProject project;
@@ -0,0 +1,307 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+import org.apache.maven.artifact.Artifact;
+import org.apache.maven.artifact.repository.ArtifactRepository;
+import org.apache.maven.artifact.resolver.ArtifactNotFoundException;
+import org.apache.maven.artifact.resolver.ArtifactResolutionRequest;
+import org.apache.maven.artifact.resolver.ArtifactResolutionResult;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.repository.RepositorySystem;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.context.Context;
+import org.jboss.maven.plugins.qstools.Constants;
+
+/**
+ * Checks if artifacts can be resolved from Maven Central.
+ *
+ * Each groupId:artifactId:version is resolved only once per run, even if several projects of the reactor use it, and
+ * distinct artifacts are resolved concurrently. Artifacts that Maven Central doesn't have are also kept on the
+ * {@link DiskCache} for a day, so the following runs don't query Maven Central for them again. Other resolution errors
+ * (ex: network errors) are reported by {@link #isAvailable(String, String, String)} for that artifact only and aren't
+ * kept on the disk cache. The Mojos must call {@link #clear()} when they finish.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = CentralArtifactResolver.class)
+public class CentralArtifactResolver {
+
+    private static final String MISSING_ARTIFACTS_KEY = "qstools:missing-central-artifacts";
+
+    private static final long MISSING_ARTIFACT_TTL = 24 * 60 * 60 * 1000; // 1 day
+
+    private static final int MAX_THREADS = 8;
+
+    @Requirement
+    private RepositorySystem repositorySystem;
+
+    @Requirement
+    private DiskCache diskCache;
+
+    @Requirement
+    private Context context;
+
+    /**
+     * The resolution of each groupId:artifactId:version on this run
+     */
+    private final ConcurrentMap<String, FutureTask<Boolean>> resolutions = new ConcurrentHashMap<String, FutureTask<Boolean>>();
+
+    /**
+     * When each artifact was found missing on Maven Central. Loaded from the {@link DiskCache}.
+     */
+    private Map<String, Long> missingArtifacts;
+
+    private List<ArtifactRepository> remoteRepositories;
+
+    /**
+     * Resolve the given artifacts concurrently. Artifacts already resolved on this run are skipped. The resolution
+     * failures are reported by {@link #isAvailable(String, String, String)}.
+     *
+     * @param gavs the artifacts as groupId:artifactId:version. Duplicates are resolved once.
+     *
+     * @throws Exception if the resolutions can't be run
+     */
+    public void resolve(Collection<String> gavs) throws Exception {
+        Map<String, FutureTask<Boolean>> tasks = new HashMap<String, FutureTask<Boolean>>();
+        for (String gav : gavs) {
+            FutureTask<Boolean> task = newResolution(gav);
+            if (resolutions.putIfAbsent(gav, task) == null) {
+                tasks.put(gav, task);
+            }
+        }
+        if (tasks.isEmpty()) {
+            return;
+        }
+        Log log = (Log) context.get(Constants.LOG_CONTEXT);
+        long start = System.currentTimeMillis();
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_THREADS, tasks.size()));
+        try {
+            for (FutureTask<Boolean> task : tasks.values()) {
+                executor.execute(task);
+            }
+            for (FutureTask<Boolean> task : tasks.values()) {
+                try {
+                    task.get();
+                } catch (ExecutionException e) {
+                    // Reported by isAvailable for that artifact only
+                }
+            }
+        } catch (Exception e) {
+            // Don't keep the interrupted resolutions, so they are resolved again
+            for (Map.Entry<String, FutureTask<Boolean>> task : tasks.entrySet()) {
+                resolutions.remove(task.getKey(), task.getValue());
+            }
+            throw e;
+        } finally {
+            executor.shutdownNow();
+        }
+        storeMissingArtifacts();
+        log.debug(tasks.size() + " artifacts checked on Maven Central in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * @param groupId the artifact groupId
+     * @param artifactId the artifact artifactId
+     * @param version the artifact version
+     *
+     * @return if the artifact can be resolved from Maven Central
+     *
+     * @throws Exception if the resolution failed for another reason than a missing artifact (ex: a network error)
+     */
+    public boolean isAvailable(String groupId, String artifactId, String version) throws Exception {
+        String gav = groupId + ":" + artifactId + ":" + version;
+        FutureTask<Boolean> task = resolutions.get(gav);
+        if (task == null) {
+            resolve(Collections.singletonList(gav));
+            task = resolutions.get(gav);
+        }
+        return getResult(task);
+    }
+
+    /**
+     * Forget the resolutions of this run, so the next run checks Maven Central again for the artifacts that aren't kept
+     * on the disk cache
+     */
+    public synchronized void clear() {
+        resolutions.clear();
+        missingArtifacts = null;
+    }
+
+    private FutureTask<Boolean> newResolution(final String gav) {
+        return new FutureTask<Boolean>(new Callable<Boolean>() {
+
+            @Override
+            public Boolean call() throws Exception {
+                Long missingSince = getMissingArtifacts().get(gav);
+                if (missingSince != null && System.currentTimeMillis() - missingSince < MISSING_ARTIFACT_TTL) {
+                    return false;
+                }
+                String[] gavSplited = gav.split(":", 3);
+                Artifact artifact = repositorySystem.createProjectArtifact(gavSplited[0], gavSplited[1], gavSplited[2]);
+                MavenSession mavenSession = (MavenSession) context.get(Constants.MAVEN_SESSION_CONTEXT);
+                ArtifactResolutionRequest arr = new ArtifactResolutionRequest();
+                arr.setArtifact(artifact).setRemoteRepositories(getRemoteRepositories()).setLocalRepository(mavenSession.getLocalRepository());
+                ArtifactResolutionResult result = repositorySystem.resolve(arr);
+                if (result.isSuccess()) {
+                    getMissingArtifacts().remove(gav);
+                    return true;
+                }
+                for (Exception e : result.getExceptions()) {
+                    // A transfer or network error doesn't mean that the artifact is missing, so it isn't cached
+                    if (!(e instanceof ArtifactNotFoundException)) {
+                        throw e;
+                    }
+                }
+                getMissingArtifacts().put(gav, System.currentTimeMillis());
+                return false;
+            }
+        });
+    }
+
+    private synchronized List<ArtifactRepository> getRemoteRepositories() throws Exception {
+        if (remoteRepositories == null) {
+            List<ArtifactRepository> repositories = new ArrayList<ArtifactRepository>();
+            repositories.add(repositorySystem.createDefaultRemoteRepository());
+            remoteRepositories = Collections.unmodifiableList(repositories);
+        }
+        return remoteRepositories;
+    }
+
+    private <T> T getResult(FutureTask<T> task) throws Exception {
+        try {
+            return task.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Exception) {
+                throw (Exception) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    private boolean isFound(FutureTask<Boolean> task) {
+        if (!task.isDone()) {
+            return false;
+        }
+        try {
+            return task.get();
+        } catch (Exception e) {
+            // It couldn't be checked on this run
+            return false;
+        }
+    }
+
+    private synchronized Map<String, Long> getMissingArtifacts() throws Exception {
+        if (missingArtifacts == null) {
+            missingArtifacts = new ConcurrentHashMap<String, Long>(readMissingArtifacts(diskCache.getFile(MISSING_ARTIFACTS_KEY)));
+        }
+        return missingArtifacts;
+    }
+
+    private Map<String, Long> readMissingArtifacts(File file) {
+        Map<String, Long> missing = new HashMap<String, Long>();
+        if (!file.exists()) {
+            return missing;
+        }
+        Properties p = new Properties();
+        try {
+            InputStream is = new FileInputStream(file);
+            try {
+                p.load(is);
+            } finally {
+                is.close();
+            }
+            diskCache.accessed(file);
+        } catch (IOException e) {
+            return missing;
+        }
+        long now = System.currentTimeMillis();
+        for (String gav : p.stringPropertyNames()) {
+            try {
+                long missingSince = Long.parseLong(p.getProperty(gav));
+                if (now - missingSince < MISSING_ARTIFACT_TTL) {
+                    missing.put(gav, missingSince);
+                }
+            } catch (NumberFormatException e) {
+                // Ignore a corrupted entry. The artifact will be resolved again
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Store the missing artifacts, keeping the ones found by other processes meanwhile
+     */
+    private synchronized void storeMissingArtifacts() throws Exception {
+        Log log = (Log) context.get(Constants.LOG_CONTEXT);
+        File file = diskCache.getFile(MISSING_ARTIFACTS_KEY);
+        Map<String, Long> missing = readMissingArtifacts(file);
+        for (Map.Entry<String, FutureTask<Boolean>> resolution : resolutions.entrySet()) {
+            // Artifacts found on this run aren't missing anymore
+            if (isFound(resolution.getValue())) {
+                missing.remove(resolution.getKey());
+            }
+        }
+        missing.putAll(getMissingArtifacts());
+        Properties p = new Properties();
+        for (Map.Entry<String, Long> entry : missing.entrySet()) {
+            p.setProperty(entry.getKey(), String.valueOf(entry.getValue()));
+        }
+        try {
+            File tempFile = File.createTempFile(file.getName(), ".tmp", file.getParentFile());
+            try {
+                OutputStream os = new FileOutputStream(tempFile);
+                try {
+                    p.store(os, "QSTools artifacts missing on Maven Central");
+                } finally {
+                    os.close();
+                }
+                diskCache.moveAtomically(tempFile, file);
+            } finally {
+                tempFile.delete();
+            }
+            diskCache.stored(file, MISSING_ARTIFACTS_KEY);
+        } catch (IOException e) {
+            log.warn("Can't store the missing artifacts on " + file + ": " + e.getMessage());
+        }
+    }
+
+}
@@ -16,14 +16,18 @@
  */
 package org.jboss.maven.plugins.qstools.config;
 
-import java.io.FileNotFoundException;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.io.IOUtils;
 
 import org.apache.maven.plugin.logging.Log;
 import org.codehaus.plexus.component.annotations.Component;
@@ -33,13 +37,23 @@ import org.codehaus.plexus.context.ContextException;
 import org.jboss.maven.plugins.qstools.Constants;
 import org.yaml.snakeyaml.Yaml;
 
+import com.google.common.hash.Hashing;
+
 /**
+ * Provides the {@link Rules} of each groupId.
+ * 
+ * The config file is read and validated once into an immutable snapshot that has the {@link Rules} of all groupIds
+ * already resolved, so it is safe to use from several threads. Snapshots are also kept by content hash, so a build in the
+ * same JVM (daemon or batch mode) with an unchanged config file doesn't parse it again.
+ * 
  * @author Rafael Benevides
  * 
  */
 @Component(role = ConfigurationProvider.class)
 public class ConfigurationProvider {
-    
+
+    private static final Map<String, ConfigurationSnapshot> SNAPSHOTS = new ConcurrentHashMap<String, ConfigurationSnapshot>();
+
     @Requirement
     private Resources resources;
 
@@ -48,7 +62,7 @@ public class ConfigurationProvider {
 
     private Log log;
 
-    private Map<String, Rules> configRules = new HashMap<String, Rules>();
+    private volatile ConfigurationSnapshot snapshot;
 
     private URL configFileURL;
 
@@ -65,42 +79,45 @@ public class ConfigurationProvider {
      * @return the {@link Rules} object
      */
     public Rules getQuickstartsRules(String groupId) {
-        if (configFileURL == null) {
-            try {
-                configure();
-            } catch (ContextException e) {
-                log.error(e.getMessage(), e);
+        ConfigurationSnapshot current = snapshot;
+        if (current == null) {
+            current = loadSnapshot();
+            if (current == null) {
                 return null;
             }
         }
-        Rules rules = configRules.get(groupId);
-        if (rules == null) {
-            rules = initializeConfig(groupId);
-        }
-        return rules;
+        return current.getRules(groupId);
     }
 
-    @SuppressWarnings("unchecked")
-    private Rules initializeConfig(String groupId) {
+    private synchronized ConfigurationSnapshot loadSnapshot() {
+        if (snapshot != null) {
+            return snapshot;
+        }
         InputStream inputStream = null;
         try {
+            configure();
             // Retrieve inputStream (local cache or remote)
             inputStream = resources.getExpirationalFileInputStream(configFileURL);
-            Yaml yaml = new Yaml();
-            Map<String, Object> configFile = (Map<String, Object>) yaml.load(inputStream);
-            Map<String, Object> quickstartsGroupIds = (Map<String, Object>) configFile.get("quickstarts");
-            List<Object> configs = (List<Object>) quickstartsGroupIds.get(groupId);
-            if (configs == null) {
-                Map<String, Object> defaultRulesSection = (Map<String, Object>) ((List<Object>) configFile.get("rules")).get(0);
-                List<Object> defaultRules = new LinkedList<Object>();
-                defaultRules.add(defaultRulesSection);
-                configs = defaultRules;
+            if (inputStream == null) {
+                log.error("The config file " + configFileURL + " isn't available");
+                return null;
+            }
+            byte[] content = IOUtils.toByteArray(inputStream);
+            String hash = Hashing.sha1().hashBytes(content).toString();
+            ConfigurationSnapshot loaded = SNAPSHOTS.get(hash);
+            if (loaded == null) {
+                loaded = new ConfigurationSnapshot(new Yaml().load(new ByteArrayInputStream(content)));
+                SNAPSHOTS.put(hash, loaded);
+            } else {
+                log.debug("Reusing the already parsed config file " + configFileURL);
             }
-            Rules rules = new Rules(configs);
-            configRules.put(groupId, rules);
-            return configRules.get(groupId);
-        } catch (FileNotFoundException e) {
-            log.error("FileNotFoundException", e);
+            snapshot = loaded;
+            return snapshot;
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid config file " + configFileURL + ": " + e.getMessage());
+            return null;
+        } catch (IOException e) {
+            log.error("IOException", e);
             return null;
         } catch (ContextException e) {
             log.error("ContextException", e);
@@ -116,4 +133,46 @@ public class ConfigurationProvider {
         }
     }
 
+    /**
+     * The validated config file with the {@link Rules} of all groupIds
+     */
+    private static class ConfigurationSnapshot {
+
+        private final Rules defaultRules;
+
+        private final Map<String, Rules> rules;
+
+        @SuppressWarnings("unchecked")
+        public ConfigurationSnapshot(Object document) {
+            if (!(document instanceof Map)) {
+                throw new IllegalArgumentException("it isn't a YAML map");
+            }
+            Map<String, Object> configFile = (Map<String, Object>) document;
+            Object rulesSection = configFile.get("rules");
+            if (!(rulesSection instanceof List) || ((List<Object>) rulesSection).isEmpty() || !(((List<Object>) rulesSection).get(0) instanceof Map)) {
+                throw new IllegalArgumentException("the 'rules' section must be a list starting with the default rules");
+            }
+            Object quickstartsSection = configFile.get("quickstarts");
+            if (!(quickstartsSection instanceof Map)) {
+                throw new IllegalArgumentException("the 'quickstarts' section must be a map of groupIds");
+            }
+            List<Object> defaultRulesSection = new LinkedList<Object>();
+            defaultRulesSection.add(((List<Object>) rulesSection).get(0));
+            defaultRules = new Rules(defaultRulesSection);
+            Map<String, Rules> groupIdRules = new HashMap<String, Rules>();
+            for (Map.Entry<String, Object> quickstart : ((Map<String, Object>) quickstartsSection).entrySet()) {
+                if (!(quickstart.getValue() instanceof List)) {
+                    throw new IllegalArgumentException("the configuration of " + quickstart.getKey() + " must be a list");
+                }
+                groupIdRules.put(quickstart.getKey(), new Rules((List<Object>) quickstart.getValue()));
+            }
+            rules = Collections.unmodifiableMap(groupIdRules);
+        }
+
+        public Rules getRules(String groupId) {
+            Rules groupIdRules = rules.get(groupId);
+            return groupIdRules == null ? defaultRules : groupIdRules;
+        }
+    }
+
 }
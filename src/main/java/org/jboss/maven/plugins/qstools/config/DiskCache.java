@@ -0,0 +1,344 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.jboss.maven.plugins.qstools.Constants;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Local cache of remote resources.
+ *
+ * Each URL is stored on a file named after the SHA-1 of the URL. An index file keeps the last access of each entry, and
+ * the least recently used entries are evicted when the cache grows over its maximum size. Changes to the index are done
+ * holding a file lock, so several Maven processes (parallel builds on the same CI agent) can share the same cache.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = DiskCache.class)
+public class DiskCache {
+
+    private static final String INDEX_FILE = "index.properties";
+
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * The last access is only written to the index if it changed more than this. It avoids writing the index on every read.
+     */
+    private static final long ACCESS_GRANULARITY = 60 * 60 * 1000; // 1 hour
+
+    private static final Pattern EXTENSION = Pattern.compile("\\.([a-zA-Z0-9]{1,8})$");
+
+    /**
+     * Serializes the index changes inside this JVM. File locks are held by the whole JVM, so they don't protect threads.
+     */
+    private static final Object INDEX_LOCK = new Object();
+
+    @Requirement
+    private Context context;
+
+    private Log log;
+
+    private File directory;
+
+    private long maxSize;
+
+    /**
+     * Last access known for each entry
+     */
+    private Map<String, Long> accesses;
+
+    private synchronized void configure() throws ContextException {
+        if (directory != null) {
+            return;
+        }
+        log = (Log) context.get(Constants.LOG_CONTEXT);
+        String cacheLocation = context.contains(Constants.CACHE_DIRECTORY_CONTEXT) ? (String) context.get(Constants.CACHE_DIRECTORY_CONTEXT) : null;
+        directory = cacheLocation == null ? Constants.DEFAULT_CACHE_DIRECTORY : new File(cacheLocation);
+        Long cacheMaxSize = context.contains(Constants.CACHE_MAX_SIZE_CONTEXT) ? (Long) context.get(Constants.CACHE_MAX_SIZE_CONTEXT) : null;
+        maxSize = (cacheMaxSize == null ? Constants.DEFAULT_CACHE_MAX_SIZE_MB : cacheMaxSize) * 1024 * 1024;
+        directory.mkdirs();
+        accesses = new ConcurrentHashMap<String, Long>();
+        for (Map.Entry<String, Entry> entry : readIndex().entrySet()) {
+            accesses.put(entry.getKey(), entry.getValue().lastAccess);
+        }
+        log.debug("Using cache " + directory + " with " + accesses.size() + " entries and max size of " + maxSize + " bytes");
+    }
+
+    /**
+     * @return the cache directory
+     *
+     * @throws ContextException when the plugin isn't configured
+     */
+    public File getLocation() throws ContextException {
+        configure();
+        return directory;
+    }
+
+    /**
+     * The file where the content of an URL is stored. The original extension is kept, so tools that look at it still
+     * work.
+     *
+     * @param url the resource URL
+     *
+     * @return the cache file. It may not exist.
+     *
+     * @throws ContextException when the plugin isn't configured
+     */
+    public File getFile(String url) throws ContextException {
+        configure();
+        String name = Hashing.sha1().hashString(url, StandardCharsets.UTF_8).toString();
+        Matcher matcher = EXTENSION.matcher(url);
+        if (matcher.find()) {
+            name += "." + matcher.group(1);
+        }
+        return new File(directory, name);
+    }
+
+    /**
+     * Register an access to a cached file
+     *
+     * @param cacheFile the file returned by {@link #getFile(String)}
+     */
+    public void accessed(File cacheFile) {
+        Long lastAccess = accesses.get(cacheFile.getName());
+        long now = System.currentTimeMillis();
+        if (lastAccess == null || now - lastAccess > ACCESS_GRANULARITY) {
+            updateIndex(cacheFile.getName(), null, now);
+        }
+    }
+
+    /**
+     * Register a file that was (re)written on the cache. Least recently used entries are evicted if the cache is over its
+     * maximum size.
+     *
+     * @param cacheFile the file returned by {@link #getFile(String)}
+     * @param url the resource URL
+     */
+    public void stored(File cacheFile, String url) {
+        updateIndex(cacheFile.getName(), url, System.currentTimeMillis());
+    }
+
+    /**
+     * Move a temporary file over a cache file, so readers never see a partially written file.
+     *
+     * @param source the temporary file
+     * @param target the cache file
+     *
+     * @throws IOException if the file can't be moved
+     */
+    public void moveAtomically(File source, File target) throws IOException {
+        try {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void updateIndex(String name, String url, long access) {
+        synchronized (INDEX_LOCK) {
+            try {
+                RandomAccessFile lockFile = new RandomAccessFile(new File(directory, LOCK_FILE), "rw");
+                try {
+                    FileChannel channel = lockFile.getChannel();
+                    FileLock lock = channel.lock();
+                    try {
+                        // Other processes may have changed the index
+                        Map<String, Entry> index = readIndex();
+                        Entry entry = index.get(name);
+                        if (entry == null) {
+                            if (url == null) {
+                                // Not stored by this cache. Don't look for it again
+                                accesses.put(name, access);
+                                return;
+                            }
+                            entry = new Entry();
+                            index.put(name, entry);
+                        }
+                        entry.lastAccess = access;
+                        if (url != null) {
+                            entry.url = url;
+                            evict(index, name);
+                        }
+                        writeIndex(index);
+                        accesses.clear();
+                        for (Map.Entry<String, Entry> e : index.entrySet()) {
+                            accesses.put(e.getKey(), e.getValue().lastAccess);
+                        }
+                    } finally {
+                        lock.release();
+                    }
+                } finally {
+                    lockFile.close();
+                }
+            } catch (IOException e) {
+                log.warn("Can't update the cache index on " + directory + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Remove the least recently used entries until the cache fits its maximum size. The entry just stored is kept.
+     */
+    private void evict(Map<String, Entry> index, String keep) {
+        long size = 0;
+        List<String> names = new ArrayList<String>();
+        for (String name : new ArrayList<String>(index.keySet())) {
+            File file = new File(directory, name);
+            if (!file.exists()) {
+                // Removed by someone else
+                index.remove(name);
+                continue;
+            }
+            size += file.length() + getMetadataFile(file).length();
+            names.add(name);
+        }
+        if (size <= maxSize) {
+            return;
+        }
+        final Map<String, Entry> entries = index;
+        Collections.sort(names, new Comparator<String>() {
+
+            @Override
+            public int compare(String o1, String o2) {
+                return Long.compare(entries.get(o1).lastAccess, entries.get(o2).lastAccess);
+            }
+        });
+        for (String name : names) {
+            if (size <= maxSize) {
+                break;
+            }
+            if (name.equals(keep)) {
+                continue;
+            }
+            File file = new File(directory, name);
+            File metadataFile = getMetadataFile(file);
+            long entrySize = file.length() + metadataFile.length();
+            if (file.delete()) {
+                metadataFile.delete();
+                size -= entrySize;
+                log.debug("Evicted " + index.remove(name) + " from the cache");
+            }
+        }
+    }
+
+    /**
+     * The sidecar file of a cache file, with the metadata kept by {@link Resources}
+     *
+     * @param cacheFile the file returned by {@link #getFile(String)}
+     *
+     * @return the metadata file
+     */
+    public File getMetadataFile(File cacheFile) {
+        return new File(cacheFile.getParentFile(), cacheFile.getName() + ".meta");
+    }
+
+    private Map<String, Entry> readIndex() {
+        Map<String, Entry> index = new ConcurrentHashMap<String, Entry>();
+        File indexFile = new File(directory, INDEX_FILE);
+        if (!indexFile.exists()) {
+            return index;
+        }
+        Properties p = new Properties();
+        try {
+            InputStream is = new FileInputStream(indexFile);
+            try {
+                p.load(is);
+            } finally {
+                is.close();
+            }
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cache index " + indexFile + ": " + e.getMessage());
+            return index;
+        }
+        for (String name : p.stringPropertyNames()) {
+            // Format: lastAccess url
+            String[] value = p.getProperty(name).split(" ", 2);
+            try {
+                Entry entry = new Entry();
+                entry.lastAccess = Long.parseLong(value[0]);
+                entry.url = value.length > 1 ? value[1] : "";
+                index.put(name, entry);
+            } catch (NumberFormatException e) {
+                // Ignore a corrupted entry. Its file will be replaced on the next download
+            }
+        }
+        return index;
+    }
+
+    private void writeIndex(Map<String, Entry> index) throws IOException {
+        Properties p = new Properties();
+        for (Map.Entry<String, Entry> entry : index.entrySet()) {
+            p.setProperty(entry.getKey(), entry.getValue().lastAccess + " " + entry.getValue().url);
+        }
+        File indexFile = new File(directory, INDEX_FILE);
+        File tempFile = File.createTempFile(INDEX_FILE, ".tmp", directory);
+        try {
+            OutputStream os = new FileOutputStream(tempFile);
+            try {
+                p.store(os, "QSTools cache index");
+            } finally {
+                os.close();
+            }
+            moveAtomically(tempFile, indexFile);
+        } finally {
+            tempFile.delete();
+        }
+    }
+
+    private static class Entry {
+
+        private long lastAccess;
+
+        private String url;
+
+        @Override
+        public String toString() {
+            return url;
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.config;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.apache.http.HttpException;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpRequest;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.client.CredentialsProvider;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.DefaultRoutePlanner;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.protocol.HttpContext;
+import org.apache.maven.execution.MavenSession;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.settings.Proxy;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.jboss.maven.plugins.qstools.Constants;
+
+/**
+ * Shared HTTP client used to download remote resources.
+ *
+ * It is configured once from the Maven settings (active proxies and their nonProxyHosts) and keeps a pool of keep-alive
+ * connections. The Mojos must call {@link #close()} when they finish.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = HttpClientProvider.class)
+public class HttpClientProvider {
+
+    private static final int CONNECT_TIMEOUT = 30 * 1000;
+
+    private static final int SOCKET_TIMEOUT = 60 * 1000;
+
+    private static final int MAX_CONNECTIONS_PER_HOST = 4;
+
+    private static final int MAX_CONNECTIONS = 20;
+
+    @Requirement
+    private Context context;
+
+    private CloseableHttpClient httpClient;
+
+    /**
+     * @return the shared HTTP client. It must not be closed by the caller.
+     *
+     * @throws ContextException when the plugin isn't configured
+     */
+    public synchronized CloseableHttpClient getHttpClient() throws ContextException {
+        if (httpClient == null) {
+            Log log = (Log) context.get(Constants.LOG_CONTEXT);
+            MavenSession mavenSession = (MavenSession) context.get(Constants.MAVEN_SESSION_CONTEXT);
+            List<Proxy> proxies = new ArrayList<Proxy>();
+            CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
+            for (Proxy proxy : mavenSession.getSettings().getProxies()) {
+                if (proxy.isActive()) {
+                    proxies.add(proxy);
+                    String proxyUsername = proxy.getUsername();
+                    if (proxyUsername != null && !proxyUsername.isEmpty()) {
+                        AuthScope authScope = new AuthScope(proxy.getHost(), proxy.getPort());
+                        credentialsProvider.setCredentials(authScope, new UsernamePasswordCredentials(proxyUsername, proxy.getPassword()));
+                    }
+                    log.debug("Using proxy " + proxy.getHost() + ":" + proxy.getPort() + " for " + proxy.getProtocol());
+                }
+            }
+            PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+            connectionManager.setDefaultMaxPerRoute(MAX_CONNECTIONS_PER_HOST);
+            connectionManager.setMaxTotal(MAX_CONNECTIONS);
+            RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout(CONNECT_TIMEOUT)
+                .setConnectionRequestTimeout(SOCKET_TIMEOUT)
+                .setSocketTimeout(SOCKET_TIMEOUT)
+                .build();
+            httpClient = HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setDefaultCredentialsProvider(credentialsProvider)
+                .setRoutePlanner(new ProxyRoutePlanner(proxies))
+                .build();
+        }
+        return httpClient;
+    }
+
+    /**
+     * Close the HTTP client and its connections. A new client is created if it is needed again.
+     */
+    public synchronized void close() {
+        if (httpClient != null) {
+            try {
+                httpClient.close();
+            } catch (IOException e) {
+                // Nothing to do
+            }
+            httpClient = null;
+        }
+    }
+
+    /**
+     * Select the Maven proxy for each target host
+     */
+    private static class ProxyRoutePlanner extends DefaultRoutePlanner {
+
+        private List<Proxy> proxies;
+
+        public ProxyRoutePlanner(List<Proxy> proxies) {
+            super(null);
+            this.proxies = proxies;
+        }
+
+        @Override
+        protected HttpHost determineProxy(HttpHost target, HttpRequest request, HttpContext context) throws HttpException {
+            Proxy selected = null;
+            for (Proxy proxy : proxies) {
+                if (isNonProxyHost(proxy, target.getHostName())) {
+                    continue;
+                }
+                // Prefer a proxy for the same protocol
+                if (selected == null || (target.getSchemeName().equalsIgnoreCase(proxy.getProtocol())
+                    && !target.getSchemeName().equalsIgnoreCase(selected.getProtocol()))) {
+                    selected = proxy;
+                }
+            }
+            return selected == null ? null : new HttpHost(selected.getHost(), selected.getPort());
+        }
+
+        private boolean isNonProxyHost(Proxy proxy, String host) {
+            String nonProxyHosts = proxy.getNonProxyHosts();
+            if (nonProxyHosts == null || nonProxyHosts.trim().isEmpty()) {
+                return false;
+            }
+            // Format: host1|*.domain2|...
+            for (String nonProxyHost : nonProxyHosts.split("[|,]")) {
+                String regex = Pattern.quote(nonProxyHost.trim()).replace("*", "\\E.*\\Q");
+                if (!nonProxyHost.trim().isEmpty() && Pattern.compile(regex, Pattern.CASE_INSENSITIVE).matcher(host).matches()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+
+}
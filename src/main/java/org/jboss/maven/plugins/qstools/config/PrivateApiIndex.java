@@ -0,0 +1,187 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.config;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.context.Context;
+import org.jboss.maven.plugins.qstools.Constants;
+import org.jboss.maven.plugins.qstools.xml.XMLParserPool;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Packages of the private modules of the server.
+ *
+ * The packages are the illegalPkgs list of the Checkstyle IllegalImport configuration used before by PrivateApiChecker,
+ * so the same imports are reported. The list is read once into a trie of package names, so an import is checked
+ * walking its name only once.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = PrivateApiIndex.class)
+public class PrivateApiIndex {
+
+    @Requirement
+    private Resources resources;
+
+    @Requirement
+    private Context context;
+
+    private final Map<String, PackageTrie> tries = new ConcurrentHashMap<String, PackageTrie>();
+
+    /**
+     * @param configLocation the location of the Checkstyle configuration with the IllegalImport packages
+     *
+     * @return the trie of the private packages
+     *
+     * @throws Exception if the configuration can't be read
+     */
+    public PackageTrie getPrivatePackages(String configLocation) throws Exception {
+        PackageTrie trie = tries.get(configLocation);
+        if (trie == null) {
+            trie = load(configLocation);
+            tries.put(configLocation, trie);
+        }
+        return trie;
+    }
+
+    private synchronized PackageTrie load(String configLocation) throws Exception {
+        PackageTrie trie = tries.get(configLocation);
+        if (trie != null) {
+            return trie;
+        }
+        Log log = (Log) context.get(Constants.LOG_CONTEXT);
+        long start = System.currentTimeMillis();
+        IllegalImportHandler handler = new IllegalImportHandler();
+        InputStream is = resources.getExpirationalFileInputStream(new URL(configLocation));
+        if (is == null) {
+            throw new IOException("The private API configuration " + configLocation + " isn't available");
+        }
+        try {
+            XMLParserPool.getSAXParser().parse(is, handler);
+        } finally {
+            is.close();
+        }
+        trie = new PackageTrie();
+        for (String packageName : handler.packages) {
+            trie.add(packageName);
+        }
+        log.debug("Private API index with " + handler.packages.size() + " packages built in " + (System.currentTimeMillis() - start) + " ms");
+        return trie;
+    }
+
+    /**
+     * Collect the illegalPkgs property of the IllegalImport modules. Like Checkstyle, the value is split on commas and
+     * each package is trimmed.
+     */
+    private static class IllegalImportHandler extends DefaultHandler {
+
+        private final Set<String> packages = new HashSet<String>();
+
+        private boolean illegalImport;
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) {
+            // The Checkstyle DTD isn't needed to read the properties
+            return new InputSource(new StringReader(""));
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) throws SAXException {
+            if ("module".equals(qName)) {
+                illegalImport = "IllegalImport".equals(attributes.getValue("name"));
+            } else if ("property".equals(qName) && illegalImport && "illegalPkgs".equals(attributes.getValue("name"))) {
+                for (String packageName : attributes.getValue("value").split(",")) {
+                    if (!packageName.trim().isEmpty()) {
+                        packages.add(packageName.trim());
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Trie of package names, one node per name segment. It isn't changed after being built, so it can be shared by
+     * several threads.
+     */
+    public static class PackageTrie {
+
+        private final Node root = new Node();
+
+        private void add(String packageName) {
+            Node node = root;
+            for (String segment : packageName.split("\\.")) {
+                Node child = node.children.get(segment);
+                if (child == null) {
+                    child = new Node();
+                    node.children.put(segment, child);
+                }
+                node = child;
+            }
+            node.packageEnd = true;
+        }
+
+        /**
+         * An import is from a package when the package is a prefix of the import name followed by a dot, the same
+         * rule used by the Checkstyle IllegalImport check. So sub packages are also matched.
+         *
+         * @param importName the imported type, member or package (with .*)
+         *
+         * @return if the import is from a package of this trie
+         */
+        public boolean matches(String importName) {
+            Node node = root;
+            int segmentStart = 0;
+            for (int i = 0; i < importName.length(); i++) {
+                if (importName.charAt(i) == '.') {
+                    node = node.children.get(importName.substring(segmentStart, i));
+                    if (node == null) {
+                        return false;
+                    }
+                    if (node.packageEnd) {
+                        return true;
+                    }
+                    segmentStart = i + 1;
+                }
+            }
+            return false;
+        }
+
+        private static class Node {
+
+            private final Map<String, Node> children = new HashMap<String, Node>();
+
+            private boolean packageEnd;
+        }
+    }
+
+}
@@ -0,0 +1,178 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.config;
+
+import java.io.File;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URI;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.apache.maven.project.MavenProject;
+import org.apache.maven.shared.utils.io.FileUtils;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.jboss.maven.plugins.qstools.Constants;
+import org.jboss.maven.plugins.qstools.checkers.AbstractCheckstyleChecker;
+import org.jboss.maven.plugins.qstools.checkers.QSChecker;
+import org.jboss.maven.plugins.qstools.checkers.ValidXMLSchemaChecker;
+import org.jboss.maven.plugins.qstools.xml.XMLSchemaReferences;
+
+/**
+ * Download, concurrently, all remote resources that checkers and fixers will need to the {@link Resources} cache.
+ *
+ * This way the checkers start with everything local instead of fetching each resource serially when it is first used.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = ResourcePrefetcher.class)
+public class ResourcePrefetcher {
+
+    private static final int MAX_THREADS = 8;
+
+    @Requirement
+    private Context context;
+
+    @Requirement
+    private Resources resources;
+
+    @Requirement
+    private ConfigurationProvider configurationProvider;
+
+    @Requirement
+    private SchemaCatalog schemaCatalog;
+
+    @Requirement(role = QSChecker.class)
+    private List<QSChecker> checkers;
+
+    /**
+     * Prefetch the resources used by the given projects. Failures are only logged: the checkers will report them when the
+     * resource is used.
+     *
+     * @param reactorProjects the projects that will be processed
+     * @param includeSchemas if the XML Schemas referenced by the projects XML files should be prefetched too
+     *
+     * @throws ContextException when the plugin isn't configured
+     */
+    public void prefetch(List<MavenProject> reactorProjects, boolean includeSchemas) throws ContextException {
+        Log log = (Log) context.get(Constants.LOG_CONTEXT);
+        long start = System.currentTimeMillis();
+        // Collect the locations (URL as String, expirational or not). The config file itself is loaded by the Rules.
+        Map<String, Boolean> urls = new LinkedHashMap<String, Boolean>();
+        for (MavenProject project : reactorProjects) {
+            Rules rules = configurationProvider.getQuickstartsRules(project.getGroupId());
+            if (rules == null) {
+                continue;
+            }
+            addURL(urls, rules.getHeaderLocation(), true);
+            addURL(urls, rules.getLicenseFileLocation(), true);
+            addURL(urls, rules.getHeaderDefinitionLocation(), true);
+            addURL(urls, rules.getEclipseFormatterProfileLocation(), true);
+            for (QSChecker checker : checkers) {
+                if (checker instanceof AbstractCheckstyleChecker && !rules.isCheckerIgnored(checker.getClass())) {
+                    addURL(urls, ((AbstractCheckstyleChecker) checker).getCheckstyleConfigLocation(), true);
+                }
+            }
+            if (includeSchemas && !rules.isCheckerIgnored(ValidXMLSchemaChecker.class)) {
+                addSchemaURLs(urls, project, rules, log);
+            }
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(MAX_THREADS, urls.size())));
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (final Map.Entry<String, Boolean> entry : urls.entrySet()) {
+                futures.add(executor.submit(new Callable<Void>() {
+
+                    @Override
+                    public Void call() throws Exception {
+                        // Config resources expire, Schemas don't
+                        URL url = new URL(entry.getKey());
+                        InputStream is = entry.getValue() ? resources.getExpirationalFileInputStream(url) : resources.getFileInputStream(url);
+                        IOUtils.closeQuietly(is);
+                        return null;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    log.debug("Prefetch failed: " + e.getCause().getMessage());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            executor.shutdownNow();
+        }
+        log.debug(urls.size() + " resources prefetched in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private void addSchemaURLs(Map<String, Boolean> urls, MavenProject project, Rules rules, Log log) {
+        try {
+            List<File> xmlFiles = FileUtils.getFiles(project.getBasedir(), "**/*.xml", rules.getExcludes());
+            for (File xml : xmlFiles) {
+                XMLSchemaReferences references;
+                try {
+                    references = XMLSchemaReferences.read(xml);
+                } catch (Exception e) {
+                    // ValidXMLSchemaChecker will report it
+                    continue;
+                }
+                URI base = xml.toURI();
+                for (String location : references.getSchemaLocations().values()) {
+                    URL url = base.resolve(location).toURL();
+                    // Schemas on the local XML catalog don't need to be downloaded
+                    if (url.getProtocol().startsWith("http") && !schemaCatalog.contains(url.toString()) && !urls.containsKey(url.toString())) {
+                        urls.put(url.toString(), false);
+                    }
+                }
+            }
+        } catch (Exception e) {
+            log.debug("Can't collect the XML Schemas of " + project.getBasedir() + ": " + e.getMessage());
+        }
+    }
+
+    private void addURL(Map<String, Boolean> urls, String location, boolean expirational) {
+        if (location == null) {
+            return;
+        }
+        try {
+            String url = new URL(location).toString();
+            if (!urls.containsKey(url)) {
+                urls.put(url, expirational);
+            }
+        } catch (MalformedURLException e) {
+            // Not a remote resource
+        }
+    }
+
+}
@@ -1,46 +1,70 @@
 package org.jboss.maven.plugins.qstools.config;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
 
-import org.apache.http.HttpHost;
-import org.apache.http.HttpResponse;
-import org.apache.http.auth.AuthScope;
-import org.apache.http.auth.UsernamePasswordCredentials;
-import org.apache.http.client.CredentialsProvider;
-import org.apache.http.client.config.RequestConfig;
+import org.apache.commons.io.IOUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpHeaders;
+import org.apache.http.client.methods.CloseableHttpResponse;
 import org.apache.http.client.methods.HttpGet;
-import org.apache.http.impl.client.BasicCredentialsProvider;
-import org.apache.http.impl.client.CloseableHttpClient;
-import org.apache.http.impl.client.HttpClients;
-import org.apache.maven.execution.MavenSession;
+import org.apache.http.util.EntityUtils;
 import org.apache.maven.plugin.logging.Log;
-import org.apache.maven.settings.Proxy;
 import org.codehaus.plexus.component.annotations.Component;
 import org.codehaus.plexus.component.annotations.Requirement;
 import org.codehaus.plexus.context.Context;
 import org.codehaus.plexus.context.ContextException;
 import org.jboss.maven.plugins.qstools.Constants;
+import org.jboss.maven.plugins.qstools.Utils;
 
 @Component(role = Resources.class)
 public class Resources {
 
+    private static final String METADATA_FETCHED = "fetched";
+
+    /**
+     * Maximum memory used to keep the content of the resources used on this run
+     */
+    private static final long MEMORY_CACHE_MAX_SIZE = 32 * 1024 * 1024;
+
+    /**
+     * Resources bigger than this are always read from the disk cache
+     */
+    private static final long MEMORY_CACHE_MAX_ENTRY_SIZE = 1024 * 1024;
 
     @Requirement
     private Context context;
 
-    private MavenSession mavenSession;
+    @Requirement
+    private HttpClientProvider httpClientProvider;
+
+    @Requirement
+    private DiskCache diskCache;
 
     private Log log;
 
+    /**
+     * Content of the resources already read on this run, in access order
+     */
+    private final Map<String, MemoryCacheEntry> memoryCache = new LinkedHashMap<String, MemoryCacheEntry>(16, 0.75f, true);
+
+    private long memoryCacheSize;
+
     private void configure() throws ContextException {
         log = (Log) context.get(Constants.LOG_CONTEXT);
-        mavenSession = (MavenSession) context.get(Constants.MAVEN_SESSION_CONTEXT);
     }
 
     /**
@@ -57,23 +81,28 @@ public class Resources {
      */
     public InputStream getFileInputStream(URL url) throws ContextException, IOException {
         configure();
+        InputStream memoryStream = getMemoryCachedStream(url, false);
+        if (memoryStream != null) {
+            return memoryStream;
+        }
         File localFile = getLocalCacheFile(url);
-        InputStream repoStream;
         // if file doesn't exist locally
-        if (!localFile.exists()) {
+        if (localFile.exists()) {
+            diskCache.accessed(localFile);
+        } else if (isOffline(url)) {
+            throw notCachedOffline(url);
+        } else {
             log.debug("Local cache file " + localFile + " doesn't exist or cache has been expired");
             try {
                 log.debug("Retrieving File from Remote repository " + url);
-                repoStream = retrieveFileFromRemoteRepository(url);
-                setCachedRepoStream(repoStream, url);
+                retrieveFileFromRemoteRepository(url);
                 log.debug("Forcing the use of local file after download file without error from " + url);
-                localFile = getLocalCacheFile(url);
             } catch (Exception e) {
                 log.warn("It was not possible to contact the repository at " + url + " . Cause " + e.getMessage());
                 throw new IOException(e);
             }
         }
-        return new FileInputStream(localFile);
+        return keepInMemory(url, localFile);
     }
 
     /**
@@ -81,25 +110,32 @@ public class Resources {
      * 
      * The local file is cached based on {@link Constants#CACHE_EXPIRES_SECONDS}
      * 
-     * If the caches expires, them the file is downloaded again
+     * If the caches expires, them the file is revalidated (ETag/Last-Modified) and only downloaded again if it changed
      * 
      * @param url URL from config file
      * 
-     * @return FileInputStream from a local cached file
-     * @throws FileNotFoundException when the cache file was removed
+     * @return FileInputStream from a local cached file, or null if it couldn't be downloaded and isn't cached
+     * @throws FileNotFoundException when the cache file was removed or when running offline without a cached copy
      * @throws ContextException when the plugin isn't configured
      * 
      */
     public InputStream getExpirationalFileInputStream(URL url) throws FileNotFoundException, ContextException {
         configure();
+        if (isOffline(url)) {
+            log.debug("Running offline. Using the local cache of " + url + " even if it has expired");
+            InputStream cachedStream = getExpirationalCachedRepoStream(true, url);
+            if (cachedStream == null) {
+                throw notCachedOffline(url);
+            }
+            return cachedStream;
+        }
         InputStream repoStream = getExpirationalCachedRepoStream(false, url);
         // if cache expired
         if (repoStream == null) {
             log.debug("Local cache file " + getLocalCacheFile(url) + " doesn't exist or cache has been expired");
             try {
                 log.debug("Retrieving File from Remote repository " + url);
-                repoStream = retrieveFileFromRemoteRepository(url);
-                setCachedRepoStream(repoStream, url);
+                retrieveFileFromRemoteRepository(url);
                 log.debug("Forcing the use of local cache after download file without error from " + url);
                 repoStream = getExpirationalCachedRepoStream(true, url);
             } catch (Exception e) {
@@ -111,18 +147,54 @@ public class Resources {
         return repoStream;
     }
 
-    private InputStream getExpirationalCachedRepoStream(final boolean force, URL url) throws FileNotFoundException {
+    /**
+     * Return the path of the local copy of a remote location, so it can be handed to tools that would download it again.
+     * 
+     * The local copy follows the same rules of {@link #getExpirationalFileInputStream(URL)}
+     * 
+     * @param location URL from config file
+     * 
+     * @return the absolute path of the local cached file, or the location itself if it isn't an URL or can't be cached
+     * @throws FileNotFoundException when running offline and the location isn't cached
+     * @throws ContextException when the plugin isn't configured
+     * 
+     */
+    public String getExpirationalLocalLocation(String location) throws FileNotFoundException, ContextException {
+        URL url;
+        try {
+            url = new URL(location);
+        } catch (MalformedURLException e) {
+            // a local file or a classpath resource
+            return location;
+        }
+        InputStream is = null;
+        try {
+            is = getExpirationalFileInputStream(url);
+            return is == null ? location : getLocalCacheFile(url).getAbsolutePath();
+        } finally {
+            IOUtils.closeQuietly(is);
+        }
+    }
+
+    private InputStream getExpirationalCachedRepoStream(final boolean force, URL url) throws FileNotFoundException, ContextException {
         final String logmessage = "Local file %1s %2s used! Reason: Force:[%3b] - LastModification: %4d/%5d";
+        if (!force) {
+            InputStream memoryStream = getMemoryCachedStream(url, true);
+            if (memoryStream != null) {
+                return memoryStream;
+            }
+        }
         File localCacheFile = getLocalCacheFile(url);
         if (localCacheFile.exists()) {
             long cachedvalidity = 1000 * Constants.CACHE_EXPIRES_SECONDS;
-            long lastModified = localCacheFile.lastModified();
+            long lastModified = getFetchTime(localCacheFile);
             long timeSinceLastModification = System.currentTimeMillis() - lastModified;
             // if online, consider the cache valid until it expires
             if (force || timeSinceLastModification <= cachedvalidity) {
                 log.debug(String.format(logmessage, localCacheFile, "was", force, timeSinceLastModification,
                     cachedvalidity));
-                return new FileInputStream(localCacheFile);
+                diskCache.accessed(localCacheFile);
+                return keepInMemory(url, localCacheFile);
             }
             log.debug(String.format(logmessage, localCacheFile, "was not", force, timeSinceLastModification,
                 cachedvalidity));
@@ -130,74 +202,222 @@ public class Resources {
         return null;
     }
 
-    private void setCachedRepoStream(final InputStream stream, URL url) throws IOException {
+    /**
+     * @return the failure of a resource that isn't cached when running offline
+     */
+    private FileNotFoundException notCachedOffline(URL url) {
+        return new FileNotFoundException("The resource " + url + " isn't cached and QSTools is running offline. Run QSTools online once to cache it.");
+    }
+
+    /**
+     * @return true if the URL needs the network and QSTools is running offline
+     */
+    private boolean isOffline(URL url) {
+        return !url.getProtocol().startsWith("file") && Utils.isOffline(context);
+    }
+
+    /**
+     * @return the content kept in memory, or null if it isn't there or has expired
+     */
+    private synchronized InputStream getMemoryCachedStream(URL url, boolean expirational) {
+        MemoryCacheEntry entry = memoryCache.get(url.toString());
+        if (entry == null || (expirational && System.currentTimeMillis() - entry.fetched > 1000L * Constants.CACHE_EXPIRES_SECONDS)) {
+            return null;
+        }
+        return new ByteArrayInputStream(entry.content);
+    }
+
+    /**
+     * Read a cached file and keep its content in memory, so it is read from the disk only once per run. Least recently
+     * used contents are dropped when the memory cache is full.
+     */
+    private InputStream keepInMemory(URL url, File localCacheFile) throws FileNotFoundException {
+        if (localCacheFile.length() > MEMORY_CACHE_MAX_ENTRY_SIZE) {
+            return new FileInputStream(localCacheFile);
+        }
+        MemoryCacheEntry entry;
+        try {
+            entry = new MemoryCacheEntry(Files.readAllBytes(localCacheFile.toPath()), getFetchTime(localCacheFile));
+        } catch (IOException e) {
+            log.debug("Can't keep " + localCacheFile + " in memory: " + e.getMessage());
+            return new FileInputStream(localCacheFile);
+        }
+        synchronized (this) {
+            MemoryCacheEntry previous = memoryCache.put(url.toString(), entry);
+            memoryCacheSize += entry.content.length - (previous == null ? 0 : previous.content.length);
+            Iterator<MemoryCacheEntry> eldest = memoryCache.values().iterator();
+            while (memoryCacheSize > MEMORY_CACHE_MAX_SIZE && eldest.hasNext()) {
+                MemoryCacheEntry evicted = eldest.next();
+                if (evicted != entry) {
+                    memoryCacheSize -= evicted.content.length;
+                    eldest.remove();
+                }
+            }
+        }
+        return new ByteArrayInputStream(entry.content);
+    }
+
+    /**
+     * Store the content on the cache. It is written to a temporary file first and then moved over the cache file, so
+     * readers never see a partially written file.
+     */
+    private void setCachedRepoStream(final InputStream stream, URL url) throws IOException, ContextException {
         File localCacheFile = getLocalCacheFile(url);
         log.debug("Content stored at " + localCacheFile);
-        if (!localCacheFile.exists()) {
-            localCacheFile.createNewFile();
+        File tempFile = File.createTempFile(localCacheFile.getName(), ".tmp", localCacheFile.getParentFile());
+        try {
+            OutputStream fos = new FileOutputStream(tempFile);
+            try {
+                IOUtils.copy(stream, fos);
+            } finally {
+                fos.close();
+            }
+            diskCache.moveAtomically(tempFile, localCacheFile);
+        } finally {
+            tempFile.delete();
         }
-        FileOutputStream fos = new FileOutputStream(localCacheFile);
+        diskCache.stored(localCacheFile, url.toString());
+    }
 
-        int i = 0;
-        while ((i = stream.read()) != -1) {
-            fos.write(i);
+    private File getLocalCacheFile(URL url) throws ContextException {
+        return diskCache.getFile(url.toString());
+    }
+
+    /**
+     * The sidecar file with the validators (ETag/Last-Modified) and the fetch time of a cached file
+     */
+    private File getMetadataFile(File localCacheFile) {
+        return diskCache.getMetadataFile(localCacheFile);
+    }
+
+    private Properties getMetadata(File localCacheFile) {
+        Properties metadata = new Properties();
+        File metadataFile = getMetadataFile(localCacheFile);
+        if (localCacheFile.exists() && metadataFile.exists()) {
+            try {
+                InputStream is = new FileInputStream(metadataFile);
+                try {
+                    metadata.load(is);
+                } finally {
+                    is.close();
+                }
+            } catch (IOException e) {
+                log.debug("Ignoring unreadable cache metadata " + metadataFile + ": " + e.getMessage());
+            }
         }
-        fos.close();
+        return metadata;
     }
 
-    private File getLocalCacheFile(URL url) {
-        // Remove no word character from the repo url
-        String repo = url.toString().replaceAll("[^a-zA-Z_0-9]", "");
-        return new File(System.getProperty("java.io.tmpdir"), repo);
+    private void setMetadata(File localCacheFile, Properties metadata) throws IOException {
+        metadata.setProperty(METADATA_FETCHED, String.valueOf(System.currentTimeMillis()));
+        File metadataFile = getMetadataFile(localCacheFile);
+        File tempFile = File.createTempFile(metadataFile.getName(), ".tmp", metadataFile.getParentFile());
+        try {
+            OutputStream os = new FileOutputStream(tempFile);
+            try {
+                metadata.store(os, "QSTools cache metadata");
+            } finally {
+                os.close();
+            }
+            diskCache.moveAtomically(tempFile, metadataFile);
+        } finally {
+            tempFile.delete();
+        }
     }
 
-    private InputStream retrieveFileFromRemoteRepository(URL url) throws Exception {
+    /**
+     * @return when the cached file was fetched or revalidated for the last time
+     */
+    private long getFetchTime(File localCacheFile) {
+        String fetched = getMetadata(localCacheFile).getProperty(METADATA_FETCHED);
+        try {
+            return fetched != null ? Long.parseLong(fetched) : localCacheFile.lastModified();
+        } catch (NumberFormatException e) {
+            return localCacheFile.lastModified();
+        }
+    }
+
+    /**
+     * Retrieve the file to the local cache. When there is a cached copy, a conditional GET is used and the cached copy is
+     * kept if the server answers 304 (Not Modified)
+     */
+    private void retrieveFileFromRemoteRepository(URL url) throws Exception {
+        File localCacheFile = getLocalCacheFile(url);
+        Properties metadata = getMetadata(localCacheFile);
         if (url.getProtocol().startsWith("http")) {
             HttpGet httpGet = new HttpGet(url.toURI());
-            CredentialsProvider credentialsProvider = new BasicCredentialsProvider();
-            CloseableHttpClient client = HttpClients.custom().setDefaultCredentialsProvider(credentialsProvider).build();
-            configureProxy(credentialsProvider, httpGet);
-            HttpResponse httpResponse = client.execute(httpGet);
-            switch (httpResponse.getStatusLine().getStatusCode()) {
-                case 200:
-                    log.debug("Connected to repository! Getting " + url);
-                    break;
-
-                case 404:
-                    log.error("Failed! (File not found: " + url + ")");
-                    return null;
-
-                default:
-                    log.error("Failed! (server returned status code: "
-                        + httpResponse.getStatusLine().getStatusCode());
-                    return null;
+            if (metadata.getProperty(HttpHeaders.ETAG) != null) {
+                httpGet.setHeader(HttpHeaders.IF_NONE_MATCH, metadata.getProperty(HttpHeaders.ETAG));
+            }
+            if (metadata.getProperty(HttpHeaders.LAST_MODIFIED) != null) {
+                httpGet.setHeader(HttpHeaders.IF_MODIFIED_SINCE, metadata.getProperty(HttpHeaders.LAST_MODIFIED));
+            }
+            CloseableHttpResponse httpResponse = httpClientProvider.getHttpClient().execute(httpGet);
+            try {
+                switch (httpResponse.getStatusLine().getStatusCode()) {
+                    case 200:
+                        log.debug("Connected to repository! Getting " + url);
+                        break;
+
+                    case 304:
+                        log.debug("Not modified! Keeping the cached copy of " + url);
+                        setMetadata(localCacheFile, metadata);
+                        return;
+
+                    case 404:
+                        log.error("Failed! (File not found: " + url + ")");
+                        throw new FileNotFoundException(url.toString());
+
+                    default:
+                        log.error("Failed! (server returned status code: "
+                            + httpResponse.getStatusLine().getStatusCode());
+                        throw new IOException("Server returned status code " + httpResponse.getStatusLine().getStatusCode() + " for " + url);
+                }
+                log.info("Downloading " + url);
+                InputStream content = httpResponse.getEntity().getContent();
+                try {
+                    setCachedRepoStream(content, url);
+                } finally {
+                    content.close();
+                }
+                metadata.clear();
+                for (String validator : new String[] { HttpHeaders.ETAG, HttpHeaders.LAST_MODIFIED }) {
+                    Header header = httpResponse.getFirstHeader(validator);
+                    if (header != null) {
+                        metadata.setProperty(validator, header.getValue());
+                    }
+                }
+                setMetadata(localCacheFile, metadata);
+            } finally {
+                // Consume what is left of the entity so the connection goes back to the pool
+                EntityUtils.consumeQuietly(httpResponse.getEntity());
+                httpResponse.close();
             }
-            log.info("Downloading " + url);
-            return httpResponse.getEntity().getContent();
         } else if (url.getProtocol().startsWith("file")) {
-            return new FileInputStream(new File(url.toURI()));
+            InputStream content = new FileInputStream(new File(url.toURI()));
+            try {
+                setCachedRepoStream(content, url);
+            } finally {
+                content.close();
+            }
+            setMetadata(localCacheFile, new Properties());
+        } else {
+            throw new IOException("Unsupported protocol: " + url);
         }
-        return null;
     }
 
-    private void configureProxy(CredentialsProvider credentialsProvider, HttpGet request) {
-        Proxy proxyConfig = null;
-        if (mavenSession.getSettings().getProxies().size() > 0) {
-            proxyConfig = mavenSession.getSettings().getProxies().get(0);
-        }
-        if (proxyConfig != null) {
-            HttpHost proxy = new HttpHost(proxyConfig.getHost(), proxyConfig.getPort());
-            RequestConfig config = RequestConfig.custom()
-                .setProxy(proxy)
-                .build();
-            request.setConfig(config);
-            String proxyUsername = proxyConfig.getUsername();
-            if (proxyUsername != null && !proxyUsername.isEmpty()) {
-                String proxyPassword = proxyConfig.getPassword();
-                AuthScope authScope = new AuthScope(proxyConfig.getHost(), proxyConfig.getPort());
-                UsernamePasswordCredentials credentials = new UsernamePasswordCredentials(proxyUsername, proxyPassword);
-                credentialsProvider.setCredentials(authScope, credentials);
-            }
+    /**
+     * Immutable content of a cached resource
+     */
+    private static class MemoryCacheEntry {
+
+        private final byte[] content;
+
+        private final long fetched;
+
+        public MemoryCacheEntry(byte[] content, long fetched) {
+            this.content = content;
+            this.fetched = fetched;
         }
     }
 }
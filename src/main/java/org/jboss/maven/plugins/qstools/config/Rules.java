@@ -17,76 +17,184 @@
 package org.jboss.maven.plugins.qstools.config;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Properties;
+import java.util.Set;
+import java.util.regex.Pattern;
 
 import org.jboss.maven.plugins.qstools.checkers.QSChecker;
 import org.jboss.maven.plugins.qstools.fixers.QSFixer;
 
 /**
+ * The configuration for a groupId.
+ * 
+ * The configurations are compiled once when the object is created, so the accessors don't need to scan the YAML maps or
+ * build new collections. All returned collections are immutable.
+ * 
  * @author Rafael Benevides
  * 
  */
 public class Rules {
 
-    private List<Object> configurations;
+    private static final String SPECIFIC_EXCLUDES_PREFIX = "excludes-";
+
+    private final Map<String, Object> config;
+
+    private final Map<String, String> mavenApprovedRepositories;
+
+    private final Set<String> mavenApprovedRepositoryUrls;
+
+    private final Set<String> ignoredCheckers;
+
+    private final Set<String> ignoredUnusedProperties;
+
+    private final Set<String> ignoredDifferentValuesProperties;
+
+    private final String excludes;
+
+    private final List<String> excludesArray;
+
+    private final Map<String, List<String>> specificExcludes;
+
+    private final Map<String, String> finalNamePatterns;
+
+    private final Map<String, String> expectedBomVersion;
+
+    private final Map<String, String> propertiesNames;
+
+    private final List<String> pomOrder;
+
+    private final List<String> ignoredModules;
+
+    private final Map<String, String> readmeMetadatas;
 
+    private final Map<String, Pattern> readmeMetadataPatterns;
+
+    private final Map<String, String> projectBomsMigration;
+
+    @SuppressWarnings("unchecked")
     public Rules(List<Object> configurations) {
-        this.configurations = configurations;
+        // Get the overwritten non-null values
+        Map<String, Object> merged = new HashMap<String, Object>();
+        for (Object configuration : configurations) {
+            for (Map.Entry<String, Object> entry : ((Map<String, Object>) configuration).entrySet()) {
+                if (entry.getValue() != null) {
+                    merged.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        config = Collections.unmodifiableMap(merged);
+
+        mavenApprovedRepositories = toMap(getConfig("maven-approve-repositories"));
+        Set<String> urls = new HashSet<String>();
+        for (String rawValue : mavenApprovedRepositories.values()) {
+            // Format: url|releases|snapshots
+            urls.add(rawValue.split("[|]")[0]);
+        }
+        mavenApprovedRepositoryUrls = Collections.unmodifiableSet(urls);
+        ignoredCheckers = Collections.unmodifiableSet(new HashSet<String>(toList(getConfig("ignored-checkers"))));
+        ignoredUnusedProperties = Collections.unmodifiableSet(new HashSet<String>(toList(getConfig("ignored-unused-properties"))));
+        ignoredDifferentValuesProperties = Collections.unmodifiableSet(new HashSet<String>(toList(getConfig("ignored-differet-value-properties"))));
+        excludesArray = toList(getConfig("excludes"));
+        excludes = toExcludesString(getConfig("excludes"));
+        Map<String, List<String>> moduleExcludes = new HashMap<String, List<String>>();
+        for (String key : config.keySet()) {
+            if (key.startsWith(SPECIFIC_EXCLUDES_PREFIX)) {
+                moduleExcludes.put(key.substring(SPECIFIC_EXCLUDES_PREFIX.length()), toList(getConfig(key)));
+            }
+        }
+        specificExcludes = Collections.unmodifiableMap(moduleExcludes);
+        finalNamePatterns = toMap(getConfig("final-name-patterns"));
+        expectedBomVersion = toMap(getConfig("expected-bom-versions"));
+        propertiesNames = toMap(getConfig("property-names"));
+        pomOrder = toList(getConfig("pom-order"));
+        ignoredModules = toList(getConfig("ignored-modules"));
+        readmeMetadatas = toMap(getConfig("readme-metadatas"));
+        Map<String, Pattern> patterns = new LinkedHashMap<String, Pattern>();
+        for (Map.Entry<String, String> metadata : readmeMetadatas.entrySet()) {
+            patterns.put(metadata.getKey(), Pattern.compile(metadata.getValue()));
+        }
+        readmeMetadataPatterns = Collections.unmodifiableMap(patterns);
+        projectBomsMigration = toMap(getConfig("project-boms-migration"));
     }
 
+    /**
+     * Merge a YAML list of single entry maps (- key: value) into an immutable map, keeping the declaration order
+     */
     @SuppressWarnings("unchecked")
-    public Map<String, String> getMavenApprovedRepositories() {
-        List<Object> repositories = (List<Object>) getConfig("maven-approve-repositories");
-        Map<String, String> p = new HashMap<String, String>();
-        for (Object o : repositories) {
-            p.putAll((Map<? extends String, ? extends String>) o);
+    private static Map<String, String> toMap(Object listOfMaps) {
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        if (listOfMaps != null) {
+            for (Object o : (List<Object>) listOfMaps) {
+                for (Map.Entry<Object, Object> entry : ((Map<Object, Object>) o).entrySet()) {
+                    map.put(String.valueOf(entry.getKey()), entry.getValue() == null ? null : String.valueOf(entry.getValue()));
+                }
+            }
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    private static List<String> toList(Object list) {
+        List<String> strings = new ArrayList<String>();
+        if (list != null) {
+            for (Object o : (List<?>) list) {
+                strings.add(String.valueOf(o));
+            }
         }
-        return p;
+        return Collections.unmodifiableList(strings);
+    }
+
+    private static String toExcludesString(Object excludes) {
+        return excludes == null ? "" : excludes.toString().replace('[', ' ').replace(']', ' ');
+    }
+
+    public Map<String, String> getMavenApprovedRepositories() {
+        return mavenApprovedRepositories;
+    }
+
+    /**
+     * @return the URLs of the approved Maven repositories
+     */
+    public Set<String> getMavenApprovedRepositoryUrls() {
+        return mavenApprovedRepositoryUrls;
     }
 
     public String getMavenRepositoryComment() {
         return (String) getConfig("maven-repositories-comment");
     }
 
-    @SuppressWarnings("unchecked")
     public boolean isCheckerIgnored(Class<? extends QSChecker> checker) {
-        List<String> ignoredCheckers = (List<String>) getConfig("ignored-checkers");
         return ignoredCheckers.contains(checker.getSimpleName());
     }
 
-    @SuppressWarnings("unchecked")
-    public List<String> getIgnoredUnusedProperties() {
-        return (List<String>) getConfig("ignored-unused-properties");
+    public Set<String> getIgnoredUnusedProperties() {
+        return ignoredUnusedProperties;
     }
 
-    @SuppressWarnings("unchecked")
-    public List<String> getIgnoredDifferentValuesProperties() {
-        return (List<String>) getConfig("ignored-differet-value-properties");
+    public Set<String> getIgnoredDifferentValuesProperties() {
+        return ignoredDifferentValuesProperties;
     }
 
     public String getExcludes() {
-        Object excludes = getConfig("excludes");
-        return excludes.toString().replace('[', ' ').replace(']', ' ');
+        return excludes;
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getExcludesArray() {
-        List<String> excludes = (List<String>) getConfig("excludes");
-        return excludes;
+        return excludesArray;
     }
 
     public String getCheckerSpecificExcludes(QSChecker module) {
-        Object moduleExclude = getConfig("excludes-" + module.getClass().getSimpleName());
-        return moduleExclude == null ? "" : moduleExclude.toString().replace('[', ' ').replace(']', ' ');
+        List<String> moduleExclude = specificExcludes.get(module.getClass().getSimpleName());
+        return moduleExclude == null ? "" : toExcludesString(moduleExclude);
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getFixerSpecificExcludesArray(QSFixer fixer) {
-        List<String> moduleExclude = (List<String>) getConfig("excludes-" + fixer.getClass().getSimpleName());
-        return moduleExclude == null ? new ArrayList<String>() : moduleExclude;
+        List<String> moduleExclude = specificExcludes.get(fixer.getClass().getSimpleName());
+        return moduleExclude == null ? Collections.<String> emptyList() : moduleExclude;
     }
 
     public String getExpectedCompilerSource() {
@@ -109,6 +217,13 @@ public class Rules {
         return (String) getConfig("header-definition");
     }
 
+    /**
+     * @return the location of the Checkstyle configuration with the private API packages
+     */
+    public String getPrivateApiConfigLocation() {
+        return (String) getConfig("private-api-config");
+    }
+
     public String getGroupId() {
         return (String) getConfig("groupid");
     }
@@ -125,87 +240,43 @@ public class Rules {
         return (String) getConfig("pom-name-pattern-submodule");
     }
 
-    @SuppressWarnings("unchecked")
     public Map<String, String> getFinalNamePatterns() {
-        List<Object> packagingAsList = (List<Object>) getConfig("final-name-patterns");
-        Map<String, String> p = new HashMap<String, String>();
-        for (Object o : packagingAsList) {
-            p.putAll((Map<? extends String, ? extends String>) o);
-        }
-        return p;
+        return finalNamePatterns;
     }
 
-    @SuppressWarnings("unchecked")
-    public Properties getExpectedBomVersion() {
-        List<Object> propertiesAsList = (List<Object>) getConfig("expected-bom-versions");
-        Properties p = new Properties();
-        for (Object o : propertiesAsList) {
-            p.putAll((Map<? extends Object, ? extends Object>) o);
-        }
-        return p;
+    public Map<String, String> getExpectedBomVersion() {
+        return expectedBomVersion;
     }
 
-    @SuppressWarnings("unchecked")
-    public Properties getPropertiesNames() {
-        List<Object> propertiesAsList = (List<Object>) getConfig("property-names");
-        Properties p = new Properties();
-        for (Object o : propertiesAsList) {
-            p.putAll((Map<? extends Object, ? extends Object>) o);
-        }
-        return p;
+    public Map<String, String> getPropertiesNames() {
+        return propertiesNames;
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getPomOrder() {
-        List<String> pomOrder = (List<String>) getConfig("pom-order");
-        List<String> list = new ArrayList<String>();
-        for (String o : pomOrder) {
-            list.add(o);
-        }
-        return list;
+        return pomOrder;
     }
 
-    @SuppressWarnings("unchecked")
     public List<String> getIgnoredModules() {
-        List<String> modules = (List<String>) getConfig("ignored-modules");
-        List<String> list = new ArrayList<String>();
-        for (String o : modules) {
-            list.add(o);
-        }
-        return list;
+        return ignoredModules;
     }
 
-    @SuppressWarnings("unchecked")
     public Map<String, String> getReadmeMetadatas() {
-        List<Object> metadatas = (List<Object>) getConfig("readme-metadatas");
-        Map<String, String> map = new HashMap<String, String>();
-        for (Object o : metadatas) {
-            map.putAll((Map<? extends String, ? extends String>) o);
-        }
-        return map;
+        return readmeMetadatas;
     }
 
-    @SuppressWarnings("unchecked")
-    public Properties getProjectBomsMigration() {
-        List<Object> propertiesAsList = (List<Object>) getConfig("project-boms-migration");
-        Properties p = new Properties();
-        for (Object o : propertiesAsList) {
-            p.putAll((Map<? extends Object, ? extends Object>) o);
-        }
-        return p;
+    /**
+     * @return the compiled patterns of each README metadata
+     */
+    public Map<String, Pattern> getReadmeMetadataPatterns() {
+        return readmeMetadataPatterns;
+    }
+
+    public Map<String, String> getProjectBomsMigration() {
+        return projectBomsMigration;
     }
 
-    @SuppressWarnings("unchecked")
     public Object getConfig(String configValue) {
-        Object value = null;
-        // Get the overwritten non-null value
-        for (Object config : configurations) {
-            Object foundValue = ((Map<String, Object>) config).get(configValue);
-            if (foundValue != null) {
-                value = foundValue;
-            }
-        }
-        return value;
+        return config.get(configValue);
     }
 
 }
@@ -0,0 +1,325 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.config;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.jar.JarFile;
+import java.util.zip.ZipEntry;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.jboss.maven.plugins.qstools.Constants;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Local store of XML Schemas and DTDs, in the spirit of an OASIS XML catalog.
+ *
+ * The catalog is a directory (or a read-only jar) with an index file ({@value #INDEX_FILE}) that maps each system id,
+ * public id and namespace to a stored file. It is populated by the schemas-prefetch goal and consulted before the
+ * network, so XML validation works on air-gapped build agents.
+ *
+ * The index is loaded again when the configured location or the index file changes, so entries stored by other
+ * processes are seen. The files are written to a temporary file and then renamed, so readers never see them half
+ * written. The Mojos must call {@link #close()} when they finish.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = SchemaCatalog.class)
+public class SchemaCatalog {
+
+    public static final String INDEX_FILE = "catalog.properties";
+
+    private static final String SYSTEM_PREFIX = "system:";
+
+    private static final String PUBLIC_PREFIX = "public:";
+
+    private static final String NAMESPACE_PREFIX = "namespace:";
+
+    @Requirement
+    private Context context;
+
+    @Requirement
+    private DiskCache diskCache;
+
+    private Log log;
+
+    private File location;
+
+    private JarFile jar;
+
+    private Map<String, String> index;
+
+    /**
+     * When the loaded index was modified
+     */
+    private long indexLastModified;
+
+    /**
+     * If there are stored entries not saved yet. The index isn't loaded again meanwhile, so they aren't lost.
+     */
+    private boolean dirty;
+
+    private String fingerprint;
+
+    private synchronized void configure() throws ContextException, IOException {
+        log = (Log) context.get(Constants.LOG_CONTEXT);
+        String catalogLocation = context.contains(Constants.SCHEMA_CATALOG_CONTEXT) ? (String) context.get(Constants.SCHEMA_CATALOG_CONTEXT) : null;
+        File configuredLocation = catalogLocation == null ? Constants.DEFAULT_SCHEMA_CATALOG : new File(catalogLocation);
+        if (index != null && configuredLocation.equals(location) && (dirty || getIndexFile().lastModified() == indexLastModified)) {
+            return;
+        }
+        close();
+        location = configuredLocation;
+        if (location.isFile() && location.getName().endsWith(".jar")) {
+            jar = new JarFile(location);
+        }
+        indexLastModified = getIndexFile().lastModified();
+        index = new ConcurrentHashMap<String, String>(readIndex());
+        log.debug("Using XML catalog " + location + " with " + index.size() + " entries");
+    }
+
+    /**
+     * @return the file that changes when the index changes: the jar or the index file on the directory
+     */
+    private File getIndexFile() {
+        return jar != null ? location : new File(location, INDEX_FILE);
+    }
+
+    /**
+     * Read the index from the catalog location
+     */
+    private Map<String, String> readIndex() throws IOException {
+        Properties p = new Properties();
+        InputStream is = null;
+        if (jar != null) {
+            ZipEntry indexEntry = jar.getEntry(INDEX_FILE);
+            is = indexEntry == null ? null : jar.getInputStream(indexEntry);
+        } else if (getIndexFile().exists()) {
+            is = new FileInputStream(getIndexFile());
+        }
+        if (is != null) {
+            try {
+                p.load(is);
+            } finally {
+                is.close();
+            }
+        }
+        Map<String, String> entries = new TreeMap<String, String>();
+        for (String key : p.stringPropertyNames()) {
+            entries.put(key, p.getProperty(key));
+        }
+        return entries;
+    }
+
+    /**
+     * Look up a Schema or DTD on the catalog. The system id has precedence over the public id, and the namespace is only
+     * used when no system id is known (different Schema versions can share the same namespace)
+     *
+     * @param namespaceURI the target namespace of a Schema (can be null)
+     * @param publicId the public id of a DTD (can be null)
+     * @param systemId the absolute system id (can be null)
+     *
+     * @return the stored content or null if the catalog doesn't have it
+     *
+     * @throws ContextException when the plugin isn't configured
+     * @throws IOException in case of any failure to read the catalog
+     */
+    public synchronized InputStream resolve(String namespaceURI, String publicId, String systemId) throws ContextException, IOException {
+        configure();
+        String entry = null;
+        if (systemId != null) {
+            entry = index.get(SYSTEM_PREFIX + systemId);
+        }
+        if (entry == null && publicId != null) {
+            entry = index.get(PUBLIC_PREFIX + publicId);
+        }
+        if (entry == null && systemId == null && namespaceURI != null) {
+            entry = index.get(NAMESPACE_PREFIX + namespaceURI);
+        }
+        if (entry == null) {
+            return null;
+        }
+        log.debug("Resolved " + (systemId != null ? systemId : publicId != null ? publicId : namespaceURI) + " from XML catalog");
+        if (jar != null) {
+            ZipEntry zipEntry = jar.getEntry(entry);
+            return zipEntry == null ? null : jar.getInputStream(zipEntry);
+        }
+        File file = new File(location, entry);
+        return file.exists() ? new FileInputStream(file) : null;
+    }
+
+    /**
+     * Check if the catalog has a Schema or DTD stored for the given system id
+     *
+     * @param systemId the absolute system id
+     *
+     * @return true if there is an entry
+     *
+     * @throws ContextException when the plugin isn't configured
+     * @throws IOException in case of any failure to read the catalog
+     */
+    public synchronized boolean contains(String systemId) throws ContextException, IOException {
+        configure();
+        return index.containsKey(SYSTEM_PREFIX + systemId);
+    }
+
+    /**
+     * Store a Schema or DTD on the catalog. Call {@link #save()} to persist the index.
+     *
+     * @param namespaceURI the target namespace of a Schema (can be null)
+     * @param publicId the public id of a DTD (can be null)
+     * @param systemId the absolute system id
+     * @param content the Schema/DTD content
+     *
+     * @throws ContextException when the plugin isn't configured
+     * @throws IOException in case of any failure to write the file
+     */
+    public synchronized void store(String namespaceURI, String publicId, String systemId, InputStream content) throws ContextException, IOException {
+        configure();
+        if (jar != null) {
+            throw new IOException("The XML catalog " + location + " is a read-only jar file");
+        }
+        if (!location.exists() && !location.mkdirs()) {
+            throw new IOException("Can't create the XML catalog directory " + location);
+        }
+        String extension = systemId.lastIndexOf('.') > systemId.lastIndexOf('/') ? systemId.substring(systemId.lastIndexOf('.')) : "";
+        String entry = Hashing.sha1().hashString(systemId, StandardCharsets.UTF_8).toString() + extension;
+        File tempFile = File.createTempFile(entry, ".tmp", location);
+        try {
+            OutputStream os = new FileOutputStream(tempFile);
+            try {
+                IOUtils.copy(content, os);
+            } finally {
+                os.close();
+            }
+            diskCache.moveAtomically(tempFile, new File(location, entry));
+        } finally {
+            tempFile.delete();
+        }
+        dirty = true;
+        fingerprint = null;
+        index.put(SYSTEM_PREFIX + systemId, entry);
+        if (publicId != null) {
+            index.put(PUBLIC_PREFIX + publicId, entry);
+        }
+        if (namespaceURI != null) {
+            index.put(NAMESPACE_PREFIX + namespaceURI, entry);
+        }
+    }
+
+    /**
+     * Persist the catalog index, keeping the entries stored by other processes meanwhile
+     *
+     * @throws ContextException when the plugin isn't configured
+     * @throws IOException in case of any failure to write the index
+     */
+    public synchronized void save() throws ContextException, IOException {
+        configure();
+        if (jar != null) {
+            throw new IOException("The XML catalog " + location + " is a read-only jar file");
+        }
+        if (!location.exists() && !location.mkdirs()) {
+            throw new IOException("Can't create the XML catalog directory " + location);
+        }
+        Map<String, String> entries = readIndex();
+        entries.putAll(index);
+        Properties p = new Properties();
+        p.putAll(entries);
+        File indexFile = getIndexFile();
+        File tempFile = File.createTempFile(INDEX_FILE, ".tmp", location);
+        try {
+            OutputStream os = new FileOutputStream(tempFile);
+            try {
+                p.store(os, "QSTools XML catalog");
+            } finally {
+                os.close();
+            }
+            diskCache.moveAtomically(tempFile, indexFile);
+        } finally {
+            tempFile.delete();
+        }
+        index = new ConcurrentHashMap<String, String>(entries);
+        indexLastModified = indexFile.lastModified();
+        dirty = false;
+        fingerprint = null;
+    }
+
+    /**
+     * Close the catalog jar, if any. The index is loaded again if the catalog is used again. Entries stored and not
+     * saved are discarded.
+     */
+    public synchronized void close() {
+        if (jar != null) {
+            try {
+                jar.close();
+            } catch (IOException e) {
+                // Nothing to do
+            }
+            jar = null;
+        }
+        index = null;
+        dirty = false;
+        fingerprint = null;
+    }
+
+    /**
+     * @return a hash of the catalog location and entries. It changes when the catalog is changed.
+     *
+     * @throws ContextException when the plugin isn't configured
+     * @throws IOException in case of any failure to read the catalog
+     */
+    public synchronized String getFingerprint() throws ContextException, IOException {
+        configure();
+        if (fingerprint == null) {
+            Hasher hasher = Hashing.sha1().newHasher().putString(location.getAbsolutePath() + "@" + indexLastModified, StandardCharsets.UTF_8);
+            for (Map.Entry<String, String> entry : new TreeMap<String, String>(index).entrySet()) {
+                hasher.putString(entry.getKey() + "=" + entry.getValue() + "\n", StandardCharsets.UTF_8);
+            }
+            fingerprint = hasher.hash().toString();
+        }
+        return fingerprint;
+    }
+
+    /**
+     * @return the catalog location (directory or jar file)
+     *
+     * @throws ContextException when the plugin isn't configured
+     * @throws IOException in case of any failure to read the catalog
+     */
+    public synchronized File getLocation() throws ContextException, IOException {
+        configure();
+        return location;
+    }
+
+}
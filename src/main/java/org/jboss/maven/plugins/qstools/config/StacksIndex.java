@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.maven.plugin.logging.Log;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.codehaus.plexus.context.Context;
+import org.codehaus.plexus.context.ContextException;
+import org.jboss.jdf.stacks.model.Bom;
+import org.jboss.jdf.stacks.model.Stacks;
+import org.jboss.maven.plugins.qstools.Constants;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+/**
+ * Index of the BOMs available on the {@link Stacks} used by the run.
+ *
+ * It is built once from the {@link Stacks} configured by the Mojo and replaces the linear scans of
+ * {@link Stacks#getAvailableBoms()}. The index is immutable, so it can be shared by all checkers.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = StacksIndex.class)
+public class StacksIndex {
+
+    @Requirement
+    private Context context;
+
+    private volatile Index index;
+
+    /**
+     * Build the index of the given {@link Stacks}
+     *
+     * @param stacks the {@link Stacks} used by this run
+     *
+     * @throws ContextException when the plugin isn't configured
+     */
+    public synchronized void index(Stacks stacks) throws ContextException {
+        if (index != null && index.stacks == stacks) {
+            return;
+        }
+        Log log = (Log) context.get(Constants.LOG_CONTEXT);
+        long start = System.currentTimeMillis();
+        index = new Index(stacks);
+        log.debug("Stacks index with " + index.boms.size() + " BOMs built in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * @param groupId the BOM groupId
+     * @param artifactId the BOM artifactId
+     *
+     * @return the BOM available on Stacks or null if there is none
+     *
+     * @throws ContextException when the plugin isn't configured
+     */
+    public Bom getBom(String groupId, String artifactId) throws ContextException {
+        return getIndex().boms.get(groupId + ":" + artifactId);
+    }
+
+    /**
+     * @param groupId the BOM groupId
+     * @param artifactId the BOM artifactId
+     *
+     * @return the recommended version of the BOM or null if it isn't on Stacks
+     *
+     * @throws ContextException when the plugin isn't configured
+     */
+    public String getRecommendedVersion(String groupId, String artifactId) throws ContextException {
+        return getIndex().recommendedVersions.get(groupId + ":" + artifactId);
+    }
+
+    /**
+     * @return a hash of all BOMs available on Stacks. It changes when any BOM is added, removed or changed.
+     *
+     * @throws ContextException when the plugin isn't configured
+     */
+    public String getFingerprint() throws ContextException {
+        return getIndex().fingerprint;
+    }
+
+    /**
+     * @return all BOMs available on Stacks
+     *
+     * @throws ContextException when the plugin isn't configured
+     */
+    public List<Bom> getAvailableBoms() throws ContextException {
+        return getIndex().availableBoms;
+    }
+
+    private Index getIndex() throws ContextException {
+        Stacks stacks = (Stacks) context.get(Constants.STACKS_CONTEXT);
+        Index current = index;
+        if (current == null || current.stacks != stacks) {
+            index(stacks);
+            current = index;
+        }
+        return current;
+    }
+
+    /**
+     * The BOMs by groupId:artifactId
+     */
+    private static class Index {
+
+        private final Stacks stacks;
+
+        private final List<Bom> availableBoms;
+
+        private final Map<String, Bom> boms;
+
+        private final Map<String, String> recommendedVersions;
+
+        private final String fingerprint;
+
+        public Index(Stacks stacks) {
+            this.stacks = stacks;
+            Map<String, Bom> bomsByGA = new HashMap<String, Bom>();
+            Map<String, String> versionsByGA = new HashMap<String, String>();
+            Hasher hasher = Hashing.sha1().newHasher();
+            for (Bom bom : stacks.getAvailableBoms()) {
+                hasher.putString(bom.getId() + "|" + bom.getName() + "|" + bom.getGroupId() + "|" + bom.getArtifactId() + "|"
+                    + bom.getRecommendedVersion() + "\n", StandardCharsets.UTF_8);
+                String ga = bom.getGroupId() + ":" + bom.getArtifactId();
+                // The last one wins, as on the scan of Stacks#getAvailableBoms()
+                bomsByGA.put(ga, bom);
+                versionsByGA.put(ga, bom.getRecommendedVersion());
+            }
+            this.availableBoms = Collections.unmodifiableList(stacks.getAvailableBoms());
+            this.boms = Collections.unmodifiableMap(bomsByGA);
+            this.recommendedVersions = Collections.unmodifiableMap(versionsByGA);
+            this.fingerprint = hasher.hash().toString();
+        }
+    }
+
+}
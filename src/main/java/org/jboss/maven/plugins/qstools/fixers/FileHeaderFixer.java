@@ -41,6 +41,7 @@ import org.jboss.maven.plugins.qstools.Constants;
 import org.jboss.maven.plugins.qstools.QSToolsException;
 import org.jboss.maven.plugins.qstools.checkers.FileHeaderChecker;
 import org.jboss.maven.plugins.qstools.config.ConfigurationProvider;
+import org.jboss.maven.plugins.qstools.config.Resources;
 import org.jboss.maven.plugins.qstools.config.Rules;
 import org.twdata.maven.mojoexecutor.MojoExecutor.Element;
 
@@ -61,6 +62,9 @@ public class FileHeaderFixer implements QSFixer {
     @Requirement
     private ConfigurationProvider configurationProvider;
 
+    @Requirement
+    private Resources resources;
+
     @Override
     public String getFixerDescription() {
         return "Fix the license header on all files";
@@ -101,11 +105,12 @@ public class FileHeaderFixer implements QSFixer {
             pluginManager = (BuildPluginManager) context.get(Constants.PLUGIN_MANAGER);
             executeMojo(plugin(groupId("com.mycila"), artifactId("license-maven-plugin"), version("2.5")),
                 goal("format"),
-                configuration(element(name("header"), rules.getLicenseFileLocation()),
+                configuration(element(name("header"), resources.getExpirationalLocalLocation(rules.getLicenseFileLocation())),
                     element(name("aggregate"), "true"),
                     element(name("strictCheck"), "true"),
                     element(name("encoding"), "utf-8"),
-                    element(name("headerDefinitions"), element(name("headerDefinition"), rules.getHeaderDefinitionLocation())),
+                    element(name("headerDefinitions"), element(name("headerDefinition"),
+                        resources.getExpirationalLocalLocation(rules.getHeaderDefinitionLocation()))),
                     element(name("includes"), includes.toArray(new Element[] {})),
                     element(name("excludes"), excludes.toArray(new Element[] {}))),
                 executionEnvironment(project, mavenSession, pluginManager));
@@ -17,11 +17,15 @@
 package org.jboss.maven.plugins.qstools.fixers;
 
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.InputStream;
 import java.net.URL;
 import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.maven.project.MavenProject;
 import org.apache.maven.shared.utils.io.FileUtils;
@@ -56,6 +60,11 @@ public class JavaSourcesFormatFixer extends AbstractBaseFixerAdapter {
     @Requirement
     private Resources resources;
 
+    /**
+     * Settings of each Eclipse Formatter Profile already read
+     */
+    private Map<String, Map<String, String>> formatterProfiles = new ConcurrentHashMap<String, Map<String, String>>();
+
     @Override
     public String getFixerDescription() {
         return "Run the Eclipse source code formatter on all Java source files";
@@ -75,15 +84,7 @@ public class JavaSourcesFormatFixer extends AbstractBaseFixerAdapter {
         options.put(JavaCore.COMPILER_SOURCE, compilerSource);
 
         // Configure CodeFormatter with Eclipse XML Formatter Profile
-        InputStream xmlInputStream = resources.getExpirationalFileInputStream(new URL(rules.getEclipseFormatterProfileLocation()));
-        Document formatterSettingsDoc = PositionalXMLReader.readXML(xmlInputStream);
-        NodeList settingsNodes = formatterSettingsDoc.getElementsByTagName("setting");
-        for (int i = 0; i < settingsNodes.getLength(); i++) {
-            Node node = settingsNodes.item(i);
-            String id = node.getAttributes().getNamedItem("id").getTextContent();
-            String value = node.getAttributes().getNamedItem("value").getTextContent();
-            options.put(id, value);
-        }
+        options.putAll(getFormatterProfile(rules.getEclipseFormatterProfileLocation()));
 
         // Instantiate the default code formatter with the given options
         CodeFormatter codeFormatter = ToolFactory.createCodeFormatter(options);
@@ -106,4 +107,33 @@ public class JavaSourcesFormatFixer extends AbstractBaseFixerAdapter {
             Files.write(document.get(), javaSource, Charset.forName("UTF-8"));
         }
     }
+
+    /**
+     * Read the settings of an Eclipse XML Formatter Profile. Each profile is parsed only once.
+     */
+    private Map<String, String> getFormatterProfile(String location) throws Exception {
+        Map<String, String> settings = formatterProfiles.get(location);
+        if (settings == null) {
+            settings = new HashMap<String, String>();
+            InputStream xmlInputStream = resources.getExpirationalFileInputStream(new URL(location));
+            if (xmlInputStream == null) {
+                throw new FileNotFoundException("The Eclipse Formatter Profile " + location + " isn't available");
+            }
+            try {
+                Document formatterSettingsDoc = PositionalXMLReader.readXML(xmlInputStream);
+                NodeList settingsNodes = formatterSettingsDoc.getElementsByTagName("setting");
+                for (int i = 0; i < settingsNodes.getLength(); i++) {
+                    Node node = settingsNodes.item(i);
+                    String id = node.getAttributes().getNamedItem("id").getTextContent();
+                    String value = node.getAttributes().getNamedItem("value").getTextContent();
+                    settings.put(id, value);
+                }
+            } finally {
+                xmlInputStream.close();
+            }
+            settings = Collections.unmodifiableMap(settings);
+            formatterProfiles.put(location, settings);
+        }
+        return settings;
+    }
 }
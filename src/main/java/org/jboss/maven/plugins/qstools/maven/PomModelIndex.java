@@ -0,0 +1,414 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.maven;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.maven.project.MavenProject;
+import org.jboss.maven.plugins.qstools.DependencyProvider;
+import org.jboss.maven.plugins.qstools.xml.XMLUtil;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+/**
+ * The elements declared on a pom.xml, with their line numbers.
+ *
+ * It is built once from the parsed POM, so the checkers don't need to query the DOM and interpolate the versions again.
+ * Only what is declared on the file is indexed: nothing is inherited from the parent POM.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public class PomModelIndex {
+
+    private PomElement groupId;
+
+    private PomElement artifactId;
+
+    private PomElement version;
+
+    private PomElement name;
+
+    private PomElement finalName;
+
+    private PomElement repositoriesElement;
+
+    private final List<PomArtifact> dependencies = new ArrayList<PomArtifact>();
+
+    private final List<PomArtifact> managedDependencies = new ArrayList<PomArtifact>();
+
+    private final List<PomArtifact> allDependenciesAndPlugins = new ArrayList<PomArtifact>();
+
+    private final List<PomPlugin> plugins = new ArrayList<PomPlugin>();
+
+    private final List<PomElement> properties = new ArrayList<PomElement>();
+
+    private final List<PomElement> modules = new ArrayList<PomElement>();
+
+    private final List<PomElement> licenseUrls = new ArrayList<PomElement>();
+
+    private final List<PomRepository> repositories = new ArrayList<PomRepository>();
+
+    private PomModelIndex() {
+    }
+
+    /**
+     * @param project the project of the POM. Used to interpolate the versions.
+     * @param doc the POM read by the PositionalXMLReader
+     * @param dependencyProvider used to read the dependencies and plugins
+     *
+     * @return the index of the POM
+     *
+     * @throws Exception if a version can't be interpolated
+     */
+    public static PomModelIndex build(MavenProject project, Document doc, DependencyProvider dependencyProvider) throws Exception {
+        PomModelIndex index = new PomModelIndex();
+        Element root = doc.getDocumentElement();
+        if (root == null || !"project".equals(root.getNodeName())) {
+            return index;
+        }
+        index.groupId = toElement(getChild(root, "groupId"));
+        index.artifactId = toElement(getChild(root, "artifactId"));
+        index.version = toElement(getChild(root, "version"));
+        index.name = toElement(getChild(root, "name"));
+        for (Element dependency : getChildren(getChild(root, "dependencies"), "dependency")) {
+            index.dependencies.add(new PomArtifact(dependencyProvider.getDependencyFromNode(project, dependency), XMLUtil.getLineNumberFromNode(dependency)));
+        }
+        for (Element dependency : getChildren(getChild(getChild(root, "dependencyManagement"), "dependencies"), "dependency")) {
+            index.managedDependencies.add(new PomArtifact(dependencyProvider.getDependencyFromNode(project, dependency), XMLUtil.getLineNumberFromNode(dependency)));
+        }
+        for (Element plugin : getChildren(getChild(getChild(root, "build"), "plugins"), "plugin")) {
+            Element configuration = getChild(plugin, "configuration");
+            List<PomElement> configurationElements = null;
+            if (configuration != null) {
+                configurationElements = new ArrayList<PomElement>();
+                for (Element element : getChildren(configuration, null)) {
+                    configurationElements.add(toElement(element));
+                }
+            }
+            index.plugins.add(new PomPlugin(dependencyProvider.getDependencyFromNode(project, plugin), XMLUtil.getLineNumberFromNode(plugin), toElement(configuration),
+                configurationElements));
+        }
+        for (Element property : getChildren(getChild(root, "properties"), null)) {
+            index.properties.add(toElement(property));
+        }
+        for (Element module : getChildren(getChild(root, "modules"), "module")) {
+            index.modules.add(toElement(module));
+        }
+        for (Element license : getChildren(getChild(root, "licenses"), "license")) {
+            Element url = getChild(license, "url");
+            if (url != null) {
+                index.licenseUrls.add(toElement(url));
+            }
+        }
+        Element repositories = getChild(root, "repositories");
+        index.repositoriesElement = toElement(repositories);
+        for (Element repository : getChildren(repositories, "repository")) {
+            index.repositories.add(new PomRepository(toElement(getChild(repository, "id")), toElement(getChild(repository, "url")), XMLUtil
+                .getLineNumberFromNode(repository)));
+        }
+        // Elements that can be declared anywhere (ex: on profiles), on document order
+        NodeList elements = doc.getElementsByTagName("*");
+        for (int x = 0; x < elements.getLength(); x++) {
+            Node element = elements.item(x);
+            String parentName = element.getParentNode().getNodeName();
+            if (("dependency".equals(element.getNodeName()) && "dependencies".equals(parentName))
+                || ("plugin".equals(element.getNodeName()) && "plugins".equals(parentName))) {
+                index.allDependenciesAndPlugins.add(new PomArtifact(dependencyProvider.getDependencyFromNode(project, element), XMLUtil.getLineNumberFromNode(element)));
+            } else if ("finalName".equals(element.getNodeName()) && index.finalName == null) {
+                index.finalName = toElement((Element) element);
+            }
+        }
+        return index;
+    }
+
+    private static Element getChild(Element parent, String name) {
+        if (parent == null) {
+            return null;
+        }
+        for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE && name.equals(node.getNodeName())) {
+                return (Element) node;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param name the name of the children, or null for all children
+     */
+    private static List<Element> getChildren(Element parent, String name) {
+        List<Element> children = new ArrayList<Element>();
+        if (parent != null) {
+            for (Node node = parent.getFirstChild(); node != null; node = node.getNextSibling()) {
+                if (node.getNodeType() == Node.ELEMENT_NODE && (name == null || name.equals(node.getNodeName()))) {
+                    children.add((Element) node);
+                }
+            }
+        }
+        return children;
+    }
+
+    private static PomElement toElement(Element element) {
+        if (element == null) {
+            return null;
+        }
+        return new PomElement(element.getNodeName(), element.getTextContent(), XMLUtil.getLineNumberFromNode(element));
+    }
+
+    /**
+     * @return the /project/groupId element or null if it isn't declared
+     */
+    public PomElement getGroupId() {
+        return groupId;
+    }
+
+    /**
+     * @return the /project/artifactId element or null if it isn't declared
+     */
+    public PomElement getArtifactId() {
+        return artifactId;
+    }
+
+    /**
+     * @return the /project/version element or null if it isn't declared
+     */
+    public PomElement getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the /project/name element or null if it isn't declared
+     */
+    public PomElement getName() {
+        return name;
+    }
+
+    /**
+     * @return the first finalName element of the POM (ex: on /project/build or on a profile) or null if it isn't
+     *         declared
+     */
+    public PomElement getFinalName() {
+        return finalName;
+    }
+
+    /**
+     * @return the /project/repositories element or null if it isn't declared
+     */
+    public PomElement getRepositoriesElement() {
+        return repositoriesElement;
+    }
+
+    /**
+     * @return the /project/dependencies/dependency elements
+     */
+    public List<PomArtifact> getDependencies() {
+        return Collections.unmodifiableList(dependencies);
+    }
+
+    /**
+     * @return the /project/dependencyManagement/dependencies/dependency elements
+     */
+    public List<PomArtifact> getManagedDependencies() {
+        return Collections.unmodifiableList(managedDependencies);
+    }
+
+    /**
+     * @return all dependency and plugin elements of the POM, including the ones on profiles, on pluginManagement and
+     *         the plugins dependencies
+     */
+    public List<PomArtifact> getAllDependenciesAndPlugins() {
+        return Collections.unmodifiableList(allDependenciesAndPlugins);
+    }
+
+    /**
+     * @return the /project/build/plugins/plugin elements
+     */
+    public List<PomPlugin> getPlugins() {
+        return Collections.unmodifiableList(plugins);
+    }
+
+    /**
+     * @return the /project/properties/* elements. A property declared more than once is listed each time.
+     */
+    public List<PomElement> getProperties() {
+        return Collections.unmodifiableList(properties);
+    }
+
+    /**
+     * @return the /project/modules/module elements
+     */
+    public List<PomElement> getModules() {
+        return Collections.unmodifiableList(modules);
+    }
+
+    /**
+     * @return the /project/licenses/license/url elements
+     */
+    public List<PomElement> getLicenseUrls() {
+        return Collections.unmodifiableList(licenseUrls);
+    }
+
+    /**
+     * @return the /project/repositories/repository elements
+     */
+    public List<PomRepository> getRepositories() {
+        return Collections.unmodifiableList(repositories);
+    }
+
+    /**
+     * An element with text content
+     */
+    public static class PomElement {
+
+        private final String name;
+
+        private final String value;
+
+        private final int lineNumber;
+
+        public PomElement(String name, String value, int lineNumber) {
+            this.name = name;
+            this.value = value;
+            this.lineNumber = lineNumber;
+        }
+
+        /**
+         * @return the element name
+         */
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return the element text content, not interpolated
+         */
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * @return the line where the element starts
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+    }
+
+    /**
+     * A dependency or plugin element
+     */
+    public static class PomArtifact {
+
+        private final MavenDependency artifact;
+
+        private final int lineNumber;
+
+        public PomArtifact(MavenDependency artifact, int lineNumber) {
+            this.artifact = artifact;
+            this.lineNumber = lineNumber;
+        }
+
+        /**
+         * @return the declared artifact, with its interpolated version
+         */
+        public MavenDependency getArtifact() {
+            return artifact;
+        }
+
+        /**
+         * @return the line where the element starts
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+    }
+
+    /**
+     * A plugin element
+     */
+    public static class PomPlugin extends PomArtifact {
+
+        private final PomElement configuration;
+
+        private final List<PomElement> configurationElements;
+
+        public PomPlugin(MavenDependency artifact, int lineNumber, PomElement configuration, List<PomElement> configurationElements) {
+            super(artifact, lineNumber);
+            this.configuration = configuration;
+            this.configurationElements = configurationElements == null ? null : Collections.unmodifiableList(configurationElements);
+        }
+
+        /**
+         * @return the configuration element or null if the plugin has no configuration
+         */
+        public PomElement getConfiguration() {
+            return configuration;
+        }
+
+        /**
+         * @return the children of the configuration element or null if the plugin has no configuration
+         */
+        public List<PomElement> getConfigurationElements() {
+            return configurationElements;
+        }
+    }
+
+    /**
+     * A repository element
+     */
+    public static class PomRepository {
+
+        private final PomElement id;
+
+        private final PomElement url;
+
+        private final int lineNumber;
+
+        public PomRepository(PomElement id, PomElement url, int lineNumber) {
+            this.id = id;
+            this.url = url;
+            this.lineNumber = lineNumber;
+        }
+
+        /**
+         * @return the id element or null if it isn't declared
+         */
+        public PomElement getId() {
+            return id;
+        }
+
+        /**
+         * @return the url element or null if it isn't declared
+         */
+        public PomElement getUrl() {
+            return url;
+        }
+
+        /**
+         * @return the line where the element starts
+         */
+        public int getLineNumber() {
+            return lineNumber;
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.maven;
+
+import java.io.ByteArrayInputStream;
+import java.nio.file.Files;
+
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.component.annotations.Requirement;
+import org.jboss.maven.plugins.qstools.Constants;
+import org.jboss.maven.plugins.qstools.DependencyProvider;
+import org.jboss.maven.plugins.qstools.xml.PositionalXMLReader;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Provides the {@link PomModelIndex} of each project.
+ *
+ * The index is kept on the {@link MavenProject}, so it is built once per run and shared by all checkers. It is built
+ * again if the content of the pom.xml was changed meanwhile (ex: by a fixer). The content is compared, instead of the
+ * modification time and size, because a fixer can rewrite the file with the same size within the file system time
+ * granularity.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = PomModelIndexProvider.class)
+public class PomModelIndexProvider {
+
+    @Requirement
+    private DependencyProvider dependencyProvider;
+
+    /**
+     * @param project the project
+     *
+     * @return the index of the project pom.xml
+     *
+     * @throws Exception if the pom.xml can't be read
+     */
+    public PomModelIndex getPomModelIndex(MavenProject project) throws Exception {
+        synchronized (project) {
+            byte[] content = Files.readAllBytes(project.getFile().toPath());
+            String hash = Hashing.sha1().hashBytes(content).toString();
+            IndexedPom indexedPom = (IndexedPom) project.getContextValue(Constants.POM_MODEL_INDEX_CONTEXT);
+            if (indexedPom == null || !indexedPom.hash.equals(hash)) {
+                PomModelIndex index = PomModelIndex.build(project, PositionalXMLReader.readXML(new ByteArrayInputStream(content)), dependencyProvider);
+                indexedPom = new IndexedPom(hash, index);
+                project.setContextValue(Constants.POM_MODEL_INDEX_CONTEXT, indexedPom);
+            }
+            return indexedPom.index;
+        }
+    }
+
+    /**
+     * The index and the hash of the pom.xml content it was built from
+     */
+    private static class IndexedPom {
+
+        private final String hash;
+
+        private final PomModelIndex index;
+
+        public IndexedPom(String hash, PomModelIndex index) {
+            this.hash = hash;
+            this.index = index;
+        }
+    }
+
+}
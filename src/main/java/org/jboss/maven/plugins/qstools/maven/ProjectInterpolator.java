@@ -0,0 +1,98 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.maven;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.component.annotations.Component;
+import org.codehaus.plexus.interpolation.InterpolationException;
+import org.codehaus.plexus.interpolation.ObjectBasedValueSource;
+import org.codehaus.plexus.interpolation.PrefixedValueSourceWrapper;
+import org.codehaus.plexus.interpolation.PropertiesBasedValueSource;
+import org.codehaus.plexus.interpolation.StringSearchInterpolator;
+import org.jboss.maven.plugins.qstools.Constants;
+
+/**
+ * Interpolates the expressions (ex: ${version.jboss.bom}) declared on a project POM.
+ *
+ * The interpolator of each project is created once and kept on the {@link MavenProject} for the run. The interpolated
+ * values are memoized, so each expression is interpolated only once. It can be used concurrently.
+ *
+ * @author Rafael Benevides
+ *
+ */
+@Component(role = ProjectInterpolator.class)
+public class ProjectInterpolator {
+
+    /**
+     * @param project the project that declares the text
+     * @param text the text to interpolate
+     *
+     * @return the text with the project expressions replaced
+     *
+     * @throws InterpolationException if the text can't be interpolated
+     */
+    public String interpolate(MavenProject project, String text) throws InterpolationException {
+        if (text == null) {
+            return null;
+        }
+        return getInterpolation(project).interpolate(text);
+    }
+
+    private Interpolation getInterpolation(MavenProject project) {
+        synchronized (project) {
+            Interpolation interpolation = (Interpolation) project.getContextValue(Constants.PROJECT_INTERPOLATION_CONTEXT);
+            if (interpolation == null) {
+                interpolation = new Interpolation(project);
+                project.setContextValue(Constants.PROJECT_INTERPOLATION_CONTEXT, interpolation);
+            }
+            return interpolation;
+        }
+    }
+
+    /**
+     * The interpolator of a project and its interpolated values
+     */
+    private static class Interpolation {
+
+        private final StringSearchInterpolator interpolator = new StringSearchInterpolator();
+
+        private final ConcurrentMap<String, String> interpolatedValues = new ConcurrentHashMap<String, String>();
+
+        public Interpolation(MavenProject project) {
+            // Associate project.model with ${project.*} and ${pom.*} prefixes
+            PrefixedValueSourceWrapper modelWrapper = new PrefixedValueSourceWrapper(new ObjectBasedValueSource(project.getModel()), "project.", true);
+            interpolator.addValueSource(modelWrapper);
+            interpolator.addValueSource(new PropertiesBasedValueSource(project.getModel().getProperties()));
+        }
+
+        public String interpolate(String text) throws InterpolationException {
+            String interpolatedValue = interpolatedValues.get(text);
+            if (interpolatedValue == null) {
+                // The interpolator keeps state while interpolating
+                synchronized (interpolator) {
+                    interpolatedValue = interpolator.interpolate(text);
+                }
+                interpolatedValues.putIfAbsent(text, interpolatedValue);
+            }
+            return interpolatedValue;
+        }
+    }
+
+}
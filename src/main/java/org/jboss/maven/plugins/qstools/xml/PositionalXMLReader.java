@@ -20,11 +20,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Stack;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
-import javax.xml.parsers.SAXParserFactory;
 
 import org.w3c.dom.Comment;
 import org.w3c.dom.Document;
@@ -71,18 +67,8 @@ public class PositionalXMLReader {
     final public static String END_COLUMN_NUMBER_KEY_NAME = "endColumnNumber";
 
     public static Document readXML(final InputStream xmlInputStream) throws IOException, SAXException {
-        final Document doc;
-        SAXParser parser;
-        try {
-            final SAXParserFactory factory = SAXParserFactory.newInstance();
-            parser = factory.newSAXParser();
-            final DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
-            docBuilderFactory.setIgnoringComments(false);
-            final DocumentBuilder docBuilder = docBuilderFactory.newDocumentBuilder();
-            doc = docBuilder.newDocument();
-        } catch (final ParserConfigurationException e) {
-            throw new RuntimeException("Can't create SAX parser / DOM builder.", e);
-        }
+        final SAXParser parser = XMLParserPool.getSAXParser();
+        final Document doc = XMLParserPool.getDocumentBuilder().newDocument();
 
         final Stack<Element> elementStack = new Stack<Element>();
         final StringBuilder textBuffer = new StringBuilder();
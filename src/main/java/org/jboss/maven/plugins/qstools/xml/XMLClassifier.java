@@ -0,0 +1,224 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.xml.stream.XMLStreamException;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * Classify XML files by what their validation needs, using a StAX pass that doesn't build any tree.
+ *
+ * Classifications are cached by content hash, in memory and on a properties file, so unchanged files are not parsed
+ * again.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public class XMLClassifier {
+
+    public enum Kind {
+        /** Well-formed XML without namespace, Schema or DTD declaration */
+        NO_SCHEMA,
+        /** XML that declares XML Schema locations on any element or whose root element has a namespace */
+        XSD,
+        /** XML that declares a DTD */
+        DTD,
+        /** XML that isn't well-formed */
+        NOT_WELL_FORMED
+    }
+
+    private static final Map<String, Classification> CLASSIFICATIONS = new ConcurrentHashMap<String, Classification>();
+
+    private File cacheFile;
+
+    private Set<String> persistedHashes = new HashSet<String>();
+
+    // Classifications of the files seen by this instance. Only those are persisted, so stale entries are dropped.
+    private Map<String, Classification> classifications = new ConcurrentHashMap<String, Classification>();
+
+    /**
+     * @param cacheFile the file where the classifications are persisted
+     *
+     * @throws IOException if an existing cache file can't be read
+     */
+    public XMLClassifier(File cacheFile) throws IOException {
+        this.cacheFile = cacheFile;
+        if (cacheFile.exists()) {
+            Properties p = new Properties();
+            InputStream is = new FileInputStream(cacheFile);
+            try {
+                p.load(is);
+            } finally {
+                is.close();
+            }
+            for (String hash : p.stringPropertyNames()) {
+                Classification classification = Classification.parse(p.getProperty(hash));
+                if (classification != null && !CLASSIFICATIONS.containsKey(hash)) {
+                    CLASSIFICATIONS.put(hash, classification);
+                }
+            }
+            persistedHashes.addAll(p.stringPropertyNames());
+        }
+    }
+
+    /**
+     * Classify a XML file
+     *
+     * @param xml the XML file
+     *
+     * @return the classification. The Schema/DTD references are only available when the file was read.
+     *
+     * @throws IOException if the file can't be read
+     */
+    public Classification classify(File xml) throws IOException {
+        byte[] content = Files.readAllBytes(xml.toPath());
+        String hash = Hashing.sha1().hashBytes(content).toString();
+        Classification classification = CLASSIFICATIONS.get(hash);
+        if (classification == null) {
+            classification = classify(content);
+            CLASSIFICATIONS.put(hash, classification);
+        }
+        classifications.put(hash, classification);
+        return classification;
+    }
+
+    private Classification classify(byte[] content) {
+        XMLSchemaReferences references;
+        try {
+            references = XMLSchemaReferences.read(new ByteArrayInputStream(content));
+            if (references.getRootElement() == null) {
+                return new Classification(Kind.NOT_WELL_FORMED, null, 0, null);
+            }
+            if (references.getDtdSystemId() != null) {
+                return new Classification(Kind.DTD, null, 0, references);
+            }
+            // The Schema of a namespace without location can still be resolved by the XML catalog. Descendants declaring
+            // Schema locations, or a document that isn't well-formed after its root element, also need the validator.
+            if (references.hasSchemaOrDTD() || references.getRootNamespace() != null || references.hasNestedSchemaLocations()) {
+                return new Classification(Kind.XSD, null, 0, references);
+            }
+        } catch (XMLStreamException e) {
+            return new Classification(Kind.NOT_WELL_FORMED, null, 0, null);
+        }
+        return new Classification(Kind.NO_SCHEMA, references.getRootElement(), references.getRootElementLine(), null);
+    }
+
+    /**
+     * Persist the classifications of the files classified by this instance
+     *
+     * @throws IOException if the cache file can't be written
+     */
+    public void save() throws IOException {
+        if (classifications.keySet().equals(persistedHashes)) {
+            // Nothing changed since the last run
+            return;
+        }
+        Properties p = new Properties();
+        for (Map.Entry<String, Classification> entry : classifications.entrySet()) {
+            p.setProperty(entry.getKey(), entry.getValue().toString());
+        }
+        cacheFile.getParentFile().mkdirs();
+        OutputStream os = new FileOutputStream(cacheFile);
+        try {
+            p.store(os, "QSTools XML classification cache");
+        } finally {
+            os.close();
+        }
+        persistedHashes = new HashSet<String>(classifications.keySet());
+    }
+
+    public static class Classification {
+
+        private Kind kind;
+
+        private String rootElement;
+
+        private int rootElementLine;
+
+        private XMLSchemaReferences references;
+
+        private Classification(Kind kind, String rootElement, int rootElementLine, XMLSchemaReferences references) {
+            this.kind = kind;
+            this.rootElement = rootElement;
+            this.rootElementLine = rootElementLine;
+            this.references = references;
+        }
+
+        private static Classification parse(String value) {
+            String[] parts = value.split(" ", 3);
+            try {
+                Kind kind = Kind.valueOf(parts[0]);
+                if (kind == Kind.NO_SCHEMA) {
+                    return new Classification(kind, parts[2], Integer.parseInt(parts[1]), null);
+                }
+                return new Classification(kind, null, 0, null);
+            } catch (RuntimeException e) {
+                // Ignore corrupted entries. The file will be classified again.
+                return null;
+            }
+        }
+
+        /**
+         * @return the classification kind
+         */
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the root element qualified name for {@link Kind#NO_SCHEMA} files
+         */
+        public String getRootElement() {
+            return rootElement;
+        }
+
+        /**
+         * @return the root element line for {@link Kind#NO_SCHEMA} files
+         */
+        public int getRootElementLine() {
+            return rootElementLine;
+        }
+
+        /**
+         * @return the Schema/DTD references or null if the classification came from the cache
+         */
+        public XMLSchemaReferences getReferences() {
+            return references;
+        }
+
+        @Override
+        public String toString() {
+            return kind == Kind.NO_SCHEMA ? kind + " " + rootElementLine + " " + rootElement : kind.toString();
+        }
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.xml;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerConfigurationException;
+import javax.xml.transform.TransformerFactory;
+
+import org.xml.sax.SAXException;
+
+/**
+ * Per thread SAX parsers and DOM builders, and a shared TransformerFactory.
+ *
+ * The factories are looked up only once and each thread reuses its own parser instances, which are reset before being
+ * handed out.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public final class XMLParserPool {
+
+    private static final SAXParserFactory SAX_PARSER_FACTORY = SAXParserFactory.newInstance();
+
+    private static final DocumentBuilderFactory DOCUMENT_BUILDER_FACTORY = DocumentBuilderFactory.newInstance();
+
+    private static final TransformerFactory TRANSFORMER_FACTORY = TransformerFactory.newInstance();
+
+    static {
+        DOCUMENT_BUILDER_FACTORY.setIgnoringComments(false);
+    }
+
+    private static final ThreadLocal<SAXParser> SAX_PARSERS = new ThreadLocal<SAXParser>() {
+        @Override
+        protected SAXParser initialValue() {
+            // The factories are not thread safe
+            synchronized (SAX_PARSER_FACTORY) {
+                try {
+                    return SAX_PARSER_FACTORY.newSAXParser();
+                } catch (ParserConfigurationException e) {
+                    throw new RuntimeException("Can't create SAX parser.", e);
+                } catch (SAXException e) {
+                    throw new RuntimeException("Can't create SAX parser.", e);
+                }
+            }
+        }
+    };
+
+    private static final ThreadLocal<DocumentBuilder> DOCUMENT_BUILDERS = new ThreadLocal<DocumentBuilder>() {
+        @Override
+        protected DocumentBuilder initialValue() {
+            synchronized (DOCUMENT_BUILDER_FACTORY) {
+                try {
+                    return DOCUMENT_BUILDER_FACTORY.newDocumentBuilder();
+                } catch (ParserConfigurationException e) {
+                    throw new RuntimeException("Can't create DOM builder.", e);
+                }
+            }
+        }
+    };
+
+    private XMLParserPool() {
+    }
+
+    /**
+     * @return the SAX parser of the current thread. It must not be used after another call on the same thread.
+     */
+    public static SAXParser getSAXParser() {
+        SAXParser parser = SAX_PARSERS.get();
+        parser.reset();
+        return parser;
+    }
+
+    /**
+     * @return the DOM builder of the current thread. It must not be used after another call on the same thread.
+     */
+    public static DocumentBuilder getDocumentBuilder() {
+        DocumentBuilder builder = DOCUMENT_BUILDERS.get();
+        builder.reset();
+        return builder;
+    }
+
+    /**
+     * @return a new identity Transformer created from the shared factory. Transformers aren't pooled because
+     *         Transformer#reset() isn't reliable on the Xalan identity transformer, and they are cheap to create.
+     */
+    public static Transformer getTransformer() {
+        synchronized (TRANSFORMER_FACTORY) {
+            try {
+                return TRANSFORMER_FACTORY.newTransformer();
+            } catch (TransformerConfigurationException e) {
+                throw new RuntimeException("Can't create XML Transformer.", e);
+            }
+        }
+    }
+
+}
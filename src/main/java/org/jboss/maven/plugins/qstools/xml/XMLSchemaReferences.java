@@ -0,0 +1,250 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.xml;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Schema and DTD references declared by a XML document.
+ *
+ * The references are read from the prolog and the root element. The rest of the document is only streamed to find out
+ * if descendant elements declare Schema locations too.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public class XMLSchemaReferences {
+
+    private static final Pattern DOCTYPE_PUBLIC = Pattern.compile("PUBLIC\\s+[\"']([^\"']*)[\"']\\s+[\"']([^\"']*)[\"']");
+
+    private static final Pattern DOCTYPE_SYSTEM = Pattern.compile("SYSTEM\\s+[\"']([^\"']*)[\"']");
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        // Never load the external DTD subset while sniffing
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private Map<String, String> schemaLocations = new LinkedHashMap<String, String>();
+
+    private String noNamespaceSchemaLocation;
+
+    private String dtdPublicId;
+
+    private String dtdSystemId;
+
+    private String rootElement;
+
+    private String rootNamespace;
+
+    private int rootElementLine;
+
+    private boolean nestedSchemaLocations;
+
+    /**
+     * Read the schema and DTD references from a XML file
+     *
+     * @param xml the XML file
+     *
+     * @return the references found
+     *
+     * @throws IOException if the file can't be read
+     * @throws XMLStreamException if the prolog or the root element isn't well-formed
+     */
+    public static XMLSchemaReferences read(File xml) throws IOException, XMLStreamException {
+        InputStream is = new BufferedInputStream(new FileInputStream(xml));
+        try {
+            return read(is);
+        } finally {
+            is.close();
+        }
+    }
+
+    /**
+     * Read the schema and DTD references from a XML stream. The stream isn't closed.
+     *
+     * @param is the XML content
+     *
+     * @return the references found
+     *
+     * @throws XMLStreamException if the prolog or the root element isn't well-formed
+     */
+    public static XMLSchemaReferences read(InputStream is) throws XMLStreamException {
+        XMLSchemaReferences references = new XMLSchemaReferences();
+        XMLStreamReader reader = INPUT_FACTORY.createXMLStreamReader(is);
+        try {
+            while (reader.hasNext()) {
+                int event = reader.next();
+                if (event == XMLStreamConstants.DTD) {
+                    references.readDoctype(reader.getText());
+                } else if (event == XMLStreamConstants.START_ELEMENT) {
+                    references.readRootElement(reader);
+                    references.readDescendants(reader);
+                    break;
+                }
+            }
+        } finally {
+            reader.close();
+        }
+        return references;
+    }
+
+    private void readDoctype(String doctype) {
+        Matcher m = DOCTYPE_PUBLIC.matcher(doctype);
+        if (m.find()) {
+            dtdPublicId = m.group(1);
+            dtdSystemId = m.group(2);
+        } else {
+            m = DOCTYPE_SYSTEM.matcher(doctype);
+            if (m.find()) {
+                dtdSystemId = m.group(1);
+            }
+        }
+    }
+
+    private void readRootElement(XMLStreamReader reader) {
+        String prefix = reader.getPrefix();
+        rootElement = prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+        rootElementLine = reader.getLocation().getLineNumber();
+        String namespace = reader.getNamespaceURI();
+        rootNamespace = namespace == null || namespace.isEmpty() ? null : namespace;
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (!XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(reader.getAttributeNamespace(i))) {
+                continue;
+            }
+            String name = reader.getAttributeLocalName(i);
+            String value = reader.getAttributeValue(i).trim();
+            if ("schemaLocation".equals(name)) {
+                // Format: namespace1 location1 namespace2 location2 ...
+                String[] pairs = value.split("\\s+");
+                for (int x = 0; x + 1 < pairs.length; x += 2) {
+                    schemaLocations.put(pairs[x], pairs[x + 1]);
+                }
+            } else if ("noNamespaceSchemaLocation".equals(name)) {
+                noNamespaceSchemaLocation = value;
+            }
+        }
+    }
+
+    private void readDescendants(XMLStreamReader reader) {
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && declaresSchemaLocation(reader)) {
+                    nestedSchemaLocations = true;
+                    return;
+                }
+            }
+        } catch (XMLStreamException e) {
+            // The validator will report it. Assume the worst so the Schema locations are resolved while validating.
+            nestedSchemaLocations = true;
+        }
+    }
+
+    private static boolean declaresSchemaLocation(XMLStreamReader reader) {
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            if (XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI.equals(reader.getAttributeNamespace(i))) {
+                String name = reader.getAttributeLocalName(i);
+                if ("schemaLocation".equals(name) || "noNamespaceSchemaLocation".equals(name)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the namespace/location pairs declared on xsi:schemaLocation
+     */
+    public Map<String, String> getSchemaLocations() {
+        return Collections.unmodifiableMap(schemaLocations);
+    }
+
+    /**
+     * @return the location declared on xsi:noNamespaceSchemaLocation
+     */
+    public String getNoNamespaceSchemaLocation() {
+        return noNamespaceSchemaLocation;
+    }
+
+    /**
+     * @return the DOCTYPE public id
+     */
+    public String getDtdPublicId() {
+        return dtdPublicId;
+    }
+
+    /**
+     * @return the DOCTYPE system id
+     */
+    public String getDtdSystemId() {
+        return dtdSystemId;
+    }
+
+    /**
+     * @return the qualified name of the root element
+     */
+    public String getRootElement() {
+        return rootElement;
+    }
+
+    /**
+     * @return the namespace of the root element or null if it has no namespace
+     */
+    public String getRootNamespace() {
+        return rootNamespace;
+    }
+
+    /**
+     * @return the line where the root element start tag ends
+     */
+    public int getRootElementLine() {
+        return rootElementLine;
+    }
+
+    /**
+     * @return true if an element below the root element declares a XML Schema location or if the document couldn't be
+     *         read up to its end
+     */
+    public boolean hasNestedSchemaLocations() {
+        return nestedSchemaLocations;
+    }
+
+    /**
+     * @return true if the document declares a DTD or any XML Schema location
+     */
+    public boolean hasSchemaOrDTD() {
+        return dtdSystemId != null || noNamespaceSchemaLocation != null || !schemaLocations.isEmpty();
+    }
+
+}
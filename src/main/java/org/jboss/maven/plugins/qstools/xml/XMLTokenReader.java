@@ -0,0 +1,195 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.xml;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Streaming reader of XML tokens with line tracking.
+ *
+ * It is meant for checks that only need element names, text and line numbers: no tree is built, so the memory used
+ * doesn't depend on the document size.
+ *
+ * @author Rafael Benevides
+ *
+ */
+public class XMLTokenReader implements Closeable {
+
+    public enum Token {
+        START_ELEMENT, END_ELEMENT, TEXT, COMMENT
+    }
+
+    private static final XMLInputFactory INPUT_FACTORY = XMLInputFactory.newInstance();
+
+    static {
+        INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    private InputStream inputStream;
+
+    private XMLStreamReader reader;
+
+    private Token token;
+
+    private int depth;
+
+    private int line;
+
+    private int beginLine;
+
+    private int previousLine;
+
+    /**
+     * Open a XML file. The file is closed by {@link #close()}.
+     *
+     * @param xml the XML file
+     *
+     * @return the token reader
+     *
+     * @throws IOException if the file can't be opened
+     * @throws XMLStreamException if the XML can't be read
+     */
+    public static XMLTokenReader open(File xml) throws IOException, XMLStreamException {
+        InputStream is = new BufferedInputStream(new FileInputStream(xml));
+        try {
+            return new XMLTokenReader(is);
+        } catch (XMLStreamException e) {
+            is.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @param is the XML content. The stream is closed by {@link #close()}.
+     *
+     * @throws XMLStreamException if the XML can't be read
+     */
+    public XMLTokenReader(InputStream is) throws XMLStreamException {
+        this.inputStream = is;
+        this.reader = INPUT_FACTORY.createXMLStreamReader(is);
+    }
+
+    /**
+     * Move to the next token
+     *
+     * @return false at the end of the document
+     *
+     * @throws XMLStreamException if the XML isn't well-formed
+     */
+    public boolean next() throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+            line = reader.getLocation().getLineNumber();
+            switch (event) {
+                case XMLStreamConstants.START_ELEMENT:
+                    token = Token.START_ELEMENT;
+                    beginLine = previousLine;
+                    previousLine = line;
+                    depth++;
+                    return true;
+                case XMLStreamConstants.END_ELEMENT:
+                    token = Token.END_ELEMENT;
+                    depth--;
+                    return true;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    token = Token.TEXT;
+                    return true;
+                case XMLStreamConstants.COMMENT:
+                    token = Token.COMMENT;
+                    previousLine = line;
+                    return true;
+                default:
+                    // Prolog, processing instructions and entity references are not tokens
+                    break;
+            }
+        }
+        token = null;
+        return false;
+    }
+
+    /**
+     * @return the current token
+     */
+    public Token getToken() {
+        return token;
+    }
+
+    /**
+     * @return the qualified name of the current element (start or end tag)
+     */
+    public String getName() {
+        String prefix = reader.getPrefix();
+        return prefix == null || prefix.isEmpty() ? reader.getLocalName() : prefix + ":" + reader.getLocalName();
+    }
+
+    /**
+     * @return the text of the current text or comment token. Large text nodes can be split on several tokens.
+     */
+    public String getText() {
+        return reader.getText();
+    }
+
+    /**
+     * @return the element depth. The root element has depth 1 (after its start tag).
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * @return the line where the current token ends
+     */
+    public int getLine() {
+        return line;
+    }
+
+    /**
+     * The begin line of the current start tag, with the same value of
+     * {@link PositionalXMLReader#BEGIN_LINE_NUMBER_KEY_NAME}. So results are reported on the same lines as the DOM
+     * based checks.
+     *
+     * @return the line where the previous start tag or comment ends
+     */
+    public int getBeginLine() {
+        return beginLine;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            reader.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+}
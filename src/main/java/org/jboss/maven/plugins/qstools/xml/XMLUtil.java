@@ -18,12 +18,12 @@ package org.jboss.maven.plugins.qstools.xml;
 
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.OutputStream;
 
 import javax.xml.transform.OutputKeys;
 import javax.xml.transform.Result;
 import javax.xml.transform.Source;
 import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerFactory;
 import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
@@ -34,14 +34,19 @@ import org.w3c.dom.NodeList;
 public class XMLUtil {
     
     public static void writeXML(Document doc, File file) throws Exception {
-        Transformer t = TransformerFactory.newInstance().newTransformer();
+        Transformer t = XMLParserPool.getTransformer();
         t.setOutputProperty(OutputKeys.METHOD, "xml");
         t.setOutputProperty(OutputKeys.ENCODING, "UTF-8"); // NOI18N
         t.setOutputProperty(OutputKeys.INDENT, "yes"); // NOI18N
         t.setOutputProperty("{http://xml.apache.org/xslt}indent-amount", "4"); // NOI18N
         Source source = new DOMSource(doc);
-        Result result = new StreamResult(new FileOutputStream(file));
-        t.transform(source, result);
+        OutputStream os = new FileOutputStream(file);
+        try {
+            Result result = new StreamResult(os);
+            t.transform(source, result);
+        } finally {
+            os.close();
+        }
     }
 
     public static void removePreviousWhiteSpace(Node node) {
@@ -0,0 +1,165 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2013, Red Hat, Inc. and/or its affiliates, and individual
+ * contributors by the @authors tag. See the copyright.txt in the
+ * distribution for a full listing of individual contributors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jboss.maven.plugins.qstools.xml;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.SAXParser;
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerFactory;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.Attributes;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Micro-benchmark of {@link XMLParserPool} over a large synthetic reactor.
+ *
+ * Each POM is read into a DOM and written back, once looking up the factories on each call (as PositionalXMLReader and
+ * XMLUtil did before the pool) and once with the pool. Both modes do the same parsing work, so the difference is the
+ * cost of the factory lookups and parser creation.
+ *
+ * It isn't a unit test and isn't run by the build. The factory lookups scan the classpath, so run it with the plugin
+ * dependencies:
+ *
+ * <pre>
+ * mvn test-compile dependency:build-classpath -Dmdep.outputFile=target/cp.txt
+ * java -cp target/classes:target/test-classes:$(cat target/cp.txt) org.jboss.maven.plugins.qstools.xml.XMLParserPoolBenchmark [poms] [rounds]
+ * </pre>
+ *
+ * @author Rafael Benevides
+ *
+ */
+public class XMLParserPoolBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int pomCount = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+        List<byte[]> poms = new ArrayList<byte[]>();
+        for (int i = 0; i < pomCount; i++) {
+            poms.add(createPom(i));
+        }
+        System.out.println("Reading and writing " + pomCount + " POMs, " + rounds + " rounds");
+        // Warm up both modes
+        run(poms, false);
+        run(poms, true);
+        long factoriesTotal = 0;
+        long poolTotal = 0;
+        for (int round = 1; round <= rounds; round++) {
+            long factories = run(poms, false);
+            long pool = run(poms, true);
+            factoriesTotal += factories;
+            poolTotal += pool;
+            System.out.println(String.format("Round %d: factories per call %d ms, pool %d ms", round, factories, pool));
+        }
+        System.out.println(String.format("Average: factories per call %d ms, pool %d ms", factoriesTotal / rounds, poolTotal / rounds));
+    }
+
+    /**
+     * @return the elapsed time in ms
+     */
+    private static long run(List<byte[]> poms, boolean pooled) throws Exception {
+        long start = System.nanoTime();
+        for (byte[] pom : poms) {
+            SAXParser parser;
+            DocumentBuilder builder;
+            Transformer transformer;
+            if (pooled) {
+                parser = XMLParserPool.getSAXParser();
+                builder = XMLParserPool.getDocumentBuilder();
+                transformer = XMLParserPool.getTransformer();
+            } else {
+                parser = SAXParserFactory.newInstance().newSAXParser();
+                DocumentBuilderFactory docBuilderFactory = DocumentBuilderFactory.newInstance();
+                docBuilderFactory.setIgnoringComments(false);
+                builder = docBuilderFactory.newDocumentBuilder();
+                transformer = TransformerFactory.newInstance().newTransformer();
+            }
+            Document doc = read(parser, builder, pom);
+            transformer.transform(new DOMSource(doc), new StreamResult(new ByteArrayOutputStream(pom.length)));
+        }
+        return (System.nanoTime() - start) / 1000000;
+    }
+
+    private static Document read(SAXParser parser, DocumentBuilder builder, byte[] pom) throws Exception {
+        final Document doc = builder.newDocument();
+        parser.parse(new ByteArrayInputStream(pom), new DefaultHandler() {
+
+            private Element current;
+
+            @Override
+            public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                Element element = doc.createElement(qName);
+                if (current == null) {
+                    doc.appendChild(element);
+                } else {
+                    current.appendChild(element);
+                }
+                current = element;
+            }
+
+            @Override
+            public void endElement(String uri, String localName, String qName) {
+                current = current.getParentNode() instanceof Element ? (Element) current.getParentNode() : null;
+            }
+
+            @Override
+            public void characters(char[] ch, int start, int length) {
+                if (current != null) {
+                    current.appendChild(doc.createTextNode(new String(ch, start, length)));
+                }
+            }
+        });
+        return doc;
+    }
+
+    private static byte[] createPom(int i) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n");
+        sb.append("<project xmlns=\"http://maven.apache.org/POM/4.0.0\">\n");
+        sb.append("    <modelVersion>4.0.0</modelVersion>\n");
+        sb.append("    <groupId>org.jboss.quickstarts</groupId>\n");
+        sb.append("    <artifactId>quickstart-").append(i).append("</artifactId>\n");
+        sb.append("    <version>7.0.0-SNAPSHOT</version>\n");
+        sb.append("    <properties>\n");
+        sb.append("        <version.jboss.bom>7.0.0.GA</version.jboss.bom>\n");
+        sb.append("    </properties>\n");
+        sb.append("    <dependencies>\n");
+        for (int d = 0; d < 10; d++) {
+            sb.append("        <!-- dependency ").append(d).append(" -->\n");
+            sb.append("        <dependency>\n");
+            sb.append("            <groupId>org.jboss.spec.javax</groupId>\n");
+            sb.append("            <artifactId>api-").append(d).append("</artifactId>\n");
+            sb.append("            <scope>provided</scope>\n");
+            sb.append("        </dependency>\n");
+        }
+        sb.append("    </dependencies>\n");
+        sb.append("</project>\n");
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+}